@@ -0,0 +1,118 @@
+package com.example.embeddingmodel;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.example.model.Embedding;
+import com.example.splitter.TokenEstimator;
+import com.oracle.bmc.generativeaiinference.GenerativeAiInference;
+import com.oracle.bmc.generativeaiinference.model.EmbedTextResult;
+import com.oracle.bmc.generativeaiinference.requests.EmbedTextRequest;
+import com.oracle.bmc.generativeaiinference.responses.EmbedTextResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures batch planning and the conversion of GenAI responses to embeddings, against a client that returns
+ * precomputed vectors without network calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OCIEmbeddingModelBenchmark {
+    @Param({"96", "960"})
+    int chunkCount;
+
+    @Param({"384", "1024"})
+    int dimensions;
+
+    /**
+     * The fraction of chunks repeating an earlier chunk, such as headers and footers.
+     */
+    @Param({"0.0", "0.2"})
+    double duplicateRatio;
+
+    private List<String> chunks;
+    private BatchPlanner batchPlanner;
+    private OCIEmbeddingModel embeddingModel;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(1);
+        chunks = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunks.add(i > 0 && random.nextDouble() < duplicateRatio
+                    ? chunks.get(random.nextInt(i))
+                    : "chunk " + i + " " + "lorem ipsum dolor sit amet ".repeat(1 + random.nextInt(60)));
+        }
+        batchPlanner = new BatchPlanner(
+                OCIEmbeddingModel.EMBEDDING_BATCH_SIZE,
+                OCIEmbeddingModel.MAX_INPUT_TOKENS,
+                OCIEmbeddingModel.EMBEDDING_BATCH_SIZE * OCIEmbeddingModel.MAX_INPUT_TOKENS,
+                TokenEstimator.DEFAULT);
+        embeddingModel = OCIEmbeddingModel.builder()
+                .model("benchmark")
+                .compartmentId("benchmark")
+                .aiClient(stubClient(dimensions, random))
+                .build();
+    }
+
+    @Benchmark
+    public void planBatches(Blackhole blackhole) {
+        // The plan type is package-private, so it is consumed here rather than returned to generated code.
+        blackhole.consume(batchPlanner.plan(chunks));
+    }
+
+    /**
+     * Plans batches, converts each response's boxed vectors to float arrays, and fans duplicates back out.
+     */
+    @Benchmark
+    public List<Embedding> embedAll() {
+        return embeddingModel.embedAll(chunks);
+    }
+
+    /**
+     * Returns a GenAI client that answers each request with one precomputed, boxed vector per input, like the
+     * deserialized response of the real service.
+     */
+    private static GenerativeAiInference stubClient(int dimensions, Random random) {
+        List<List<Float>> vectors = new ArrayList<>(OCIEmbeddingModel.EMBEDDING_BATCH_SIZE);
+        for (int i = 0; i < OCIEmbeddingModel.EMBEDDING_BATCH_SIZE; i++) {
+            List<Float> vector = new ArrayList<>(dimensions);
+            for (int j = 0; j < dimensions; j++) {
+                vector.add((float) random.nextGaussian());
+            }
+            vectors.add(vector);
+        }
+        return (GenerativeAiInference) Proxy.newProxyInstance(
+                GenerativeAiInference.class.getClassLoader(),
+                new Class<?>[]{GenerativeAiInference.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("embedText")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    int inputs = ((EmbedTextRequest) args[0]).getEmbedTextDetails().getInputs().size();
+                    return EmbedTextResponse.builder()
+                            .embedTextResult(EmbedTextResult.builder()
+                                    .embeddings(vectors.subList(0, inputs))
+                                    .build())
+                            .build();
+                });
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.splitter;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Splits generated documents of prose paragraphs separated by blank lines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class LineSplitterBenchmark {
+    private static final String[] WORDS = {
+            "the", "vector", "database", "stores", "embeddings", "for", "similarity", "search", "of", "documents",
+            "and", "chunks", "are", "written", "in", "batches", "to", "an", "indexed", "table", "with", "cosine"
+    };
+
+    /**
+     * Document size in characters: a short page, a long report, and a large manual.
+     */
+    @Param({"4096", "131072", "4194304"})
+    int documentSize;
+
+    private final LineSplitter lineSplitter = new LineSplitter();
+    private final ChunkingSplitter chunkingSplitter = ChunkingSplitter.builder().overlapTokens(32).build();
+    private String document;
+
+    @Setup
+    public void setup() {
+        document = generateDocument(documentSize, new Random(1));
+    }
+
+    @Benchmark
+    public List<String> split() {
+        return lineSplitter.split(document);
+    }
+
+    @Benchmark
+    public void chunks(Blackhole blackhole) {
+        lineSplitter.chunks(document).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void chunksFromReader(Blackhole blackhole) {
+        lineSplitter.chunks(new StringReader(document)).forEach(blackhole::consume);
+    }
+
+    @Benchmark
+    public void packedChunks(Blackhole blackhole) {
+        chunkingSplitter.chunks(document).forEach(blackhole::consume);
+    }
+
+    /**
+     * Generates lines of 40 to 200 characters, with a blank line after every few lines.
+     */
+    static String generateDocument(int size, Random random) {
+        StringBuilder document = new StringBuilder(size + 256);
+        while (document.length() < size) {
+            int lineLength = 40 + random.nextInt(160);
+            int lineStart = document.length();
+            while (document.length() - lineStart < lineLength) {
+                document.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            document.setCharAt(document.length() - 1, '\n');
+            if (random.nextInt(4) == 0) {
+                document.append('\n');
+            }
+        }
+        return document.substring(0, size);
+    }
+}
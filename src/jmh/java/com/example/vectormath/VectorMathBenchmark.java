@@ -0,0 +1,69 @@
+package com.example.vectormath;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the Vector API kernels with the scalar fallback.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorMathBenchmark {
+    @Param({"384", "1024", "4096"})
+    int dimensions;
+
+    @Param({"SIMD", "SCALAR"})
+    String kernel;
+
+    private Kernels kernels;
+    private float[] a;
+    private float[] b;
+    private double[] doubles;
+
+    @Setup
+    public void setup() {
+        kernels = kernel.equals("SIMD") ? new SimdKernels() : new ScalarKernels();
+        Random random = new Random(1);
+        a = new float[dimensions];
+        b = new float[dimensions];
+        doubles = new double[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            a[i] = (float) random.nextGaussian();
+            b[i] = (float) random.nextGaussian();
+            doubles[i] = random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public float dot() {
+        return kernels.dot(a, 0, b, 0, dimensions);
+    }
+
+    @Benchmark
+    public float[] scale() {
+        kernels.scale(a, 0, b, 0, dimensions, 0.5f);
+        return b;
+    }
+
+    @Benchmark
+    public float[] narrow() {
+        kernels.narrow(doubles, b, dimensions);
+        return b;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.vectorstore;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.example.vectormath.VectorMath;
+import oracle.sql.VECTOR;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the per-vector work of writing and reading embeddings in each storage format.
+ * <p>
+ * toFloatArray reads from a ResultSet stand-in that decodes a VECTOR with the driver, as a fetched row would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OracleDataAdapterBenchmark {
+    @Param({"384", "768", "1024", "4096"})
+    int dimensions;
+
+    @Param({"FLOAT64", "FLOAT32", "INT8", "BINARY"})
+    VectorFormat format;
+
+    private OracleDataAdapter dataAdapter;
+    private float[] vector;
+    private float[] buffer;
+    private ResultSet resultSet;
+
+    @Setup
+    public void setup() throws SQLException {
+        Random random = new Random(1);
+        vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        buffer = new float[dimensions];
+        dataAdapter = new OracleDataAdapter(format);
+        resultSet = resultSetOf(dataAdapter.toVECTOR(vector));
+    }
+
+    @Benchmark
+    public VECTOR toVECTOR() throws SQLException {
+        return dataAdapter.toVECTOR(vector);
+    }
+
+    /**
+     * Encodes with a reused normalization buffer, as batched writes do.
+     */
+    @Benchmark
+    public VECTOR toVECTORWithBuffer() throws SQLException {
+        return dataAdapter.toVECTOR(vector, buffer);
+    }
+
+    @Benchmark
+    public float[] normalize() {
+        return VectorMath.normalize(vector, buffer);
+    }
+
+    @Benchmark
+    public float[] toFloatArray() throws SQLException {
+        return dataAdapter.toFloatArray(resultSet, "embedding");
+    }
+
+    /**
+     * Returns a ResultSet whose getObject(column, type) converts the stored VECTOR to the requested type.
+     */
+    private static ResultSet resultSetOf(VECTOR stored) {
+        return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getObject") && args.length == 2 && args[1] instanceof Class<?> type) {
+                        return stored.toClass(type);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.documentloader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.Flow;
+import java.util.stream.Stream;
+
+import com.example.model.Document;
+import com.example.model.SourceObject;
+import com.example.reactive.StreamPublisher;
+
+/**
+ * Loads the documents under a location, such as an Object Storage bucket or a local directory.
+ * <p>
+ * Sources are listed first, with a version tag for each, so callers can skip unchanged sources before reading them.
+ * Source names are relative to the location, use {@code /} as the separator, and are filtered by a name prefix.
+ * Close the loader once its streams are closed, to release the threads it reads on.
+ */
+public interface DocumentLoader extends AutoCloseable {
+    /**
+     * Lazily lists the sources under a location with the given name prefix.
+     *
+     * @param location the bucket or directory to list.
+     * @param prefix the source name prefix, or null for every source.
+     * @return a stream of sources. Close the stream to release any resources held by the listing.
+     */
+    Stream<SourceObject> listObjects(String location, String prefix);
+
+    /**
+     * Reads sources, emitting them in the order of the source stream. Sources that fail to read are logged and
+     * skipped.
+     *
+     * @param location the bucket or directory holding the sources.
+     * @param objects the sources to read. Consumed lazily, as documents are consumed.
+     * @return a stream of documents, identified by the version that was read. Closing the stream cancels any
+     * outstanding reads, but does not close the source stream.
+     */
+    Stream<Document> fetchDocuments(String location, Stream<SourceObject> objects);
+
+    /**
+     * Lazily streams the text of each source under a location with the given prefix. Documents that are read on
+     * demand are read into memory.
+     *
+     * @param location the bucket or directory to load documents from.
+     * @param prefix the source name prefix.
+     * @return a stream of document texts. Closing the stream cancels any outstanding reads.
+     */
+    default Stream<String> streamDocuments(String location, String prefix) {
+        Stream<SourceObject> objects = listObjects(location, prefix);
+        return fetchDocuments(location, objects)
+                .map(document -> {
+                    try {
+                        return document.readText();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .onClose(objects::close);
+    }
+
+    /**
+     * Publishes the documents under a location with the given prefix, for reactive consumers. Sources are listed
+     * and read as the subscriber requests documents, on a virtual thread. Each subscriber reads the location
+     * independently.
+     *
+     * @param location the bucket or directory to load documents from.
+     * @param prefix the source name prefix.
+     * @return a publisher of documents. Cancelling the subscription cancels any outstanding reads.
+     */
+    default Flow.Publisher<Document> publishDocuments(String location, String prefix) {
+        return new StreamPublisher<>(() -> {
+            Stream<SourceObject> objects = listObjects(location, prefix);
+            return fetchDocuments(location, objects).onClose(objects::close);
+        });
+    }
+
+    /**
+     * Releases the threads used to list and read sources. Streams from the loader must not be used afterwards.
+     */
+    @Override
+    default void close() {
+    }
+}
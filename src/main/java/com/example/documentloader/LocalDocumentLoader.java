@@ -0,0 +1,239 @@
+package com.example.documentloader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.example.metrics.FlowMetrics;
+import com.example.model.Document;
+import com.example.model.SourceObject;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads UTF-8 text files from a local or network file system, for backfills from staged copies of a bucket.
+ * <p>
+ * The location is a directory, and source names are file paths relative to it. Directories are walked in parallel,
+ * and up to readConcurrency files are read at once. Files from mapThreshold bytes up are not read into memory:
+ * their documents are read on demand, decoding memory-mapped regions of the file as the splitter consumes them, so
+ * heap use does not grow with the file size. Symbolic links are not followed.
+ */
+@Slf4j
+public class LocalDocumentLoader implements DocumentLoader {
+    /**
+     * Default number of directories listed, and files read, in parallel.
+     */
+    public static final int DEFAULT_READ_CONCURRENCY = 16;
+    /**
+     * Default size from which files are read on demand from memory-mapped regions. Smaller files are cheaper to read
+     * into memory.
+     */
+    public static final long DEFAULT_MAP_THRESHOLD = 256 * 1024;
+    private static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+    /**
+     * The largest file that fits in a String, when read into memory.
+     */
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE - 8;
+
+    private final int readConcurrency;
+    private final long mapThreshold;
+    /**
+     * Number of bytes mapped at once while decoding a large file.
+     */
+    private final long regionSize;
+    private final FlowMetrics metrics;
+    /**
+     * Runs directory listings and file reads. Virtual threads are used, as each blocks on file system I/O.
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public LocalDocumentLoader() {
+        this(DEFAULT_READ_CONCURRENCY);
+    }
+
+    public LocalDocumentLoader(int readConcurrency) {
+        this(readConcurrency, FlowMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics receives the size and latency of each directory listing and file read.
+     */
+    public LocalDocumentLoader(int readConcurrency, FlowMetrics metrics) {
+        this(readConcurrency, DEFAULT_MAP_THRESHOLD, DEFAULT_REGION_SIZE, metrics);
+    }
+
+    LocalDocumentLoader(int readConcurrency, long mapThreshold, long regionSize, FlowMetrics metrics) {
+        if (readConcurrency < 1) {
+            throw new IllegalArgumentException("readConcurrency must be positive: " + readConcurrency);
+        }
+        if (regionSize < 4) {
+            // A region must hold the longest UTF-8 character.
+            throw new IllegalArgumentException("regionSize must be at least 4: " + regionSize);
+        }
+        this.readConcurrency = readConcurrency;
+        this.mapThreshold = mapThreshold;
+        this.regionSize = regionSize;
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
+    }
+
+    /**
+     * Lists the regular files under a directory whose relative paths start with the given prefix. The walk starts
+     * from the deepest directory named by the prefix, skips subdirectories that cannot match, and lists up to
+     * readConcurrency directories in parallel. It completes before this returns.
+     *
+     * @param location the directory to list.
+     * @param prefix the relative path prefix, using {@code /} as the separator, or null for every file.
+     * @return a stream of files in name order, versioned by their modification time and size.
+     * @throws UncheckedIOException if a directory cannot be listed.
+     */
+    @Override
+    public Stream<SourceObject> listObjects(String location, String prefix) {
+        Path root = root(location);
+        String namePrefix = Objects.requireNonNullElse(prefix, "");
+        Path start = root.resolve(namePrefix.substring(0, Math.max(0, namePrefix.lastIndexOf('/'))));
+        if (!Files.isDirectory(start, LinkOption.NOFOLLOW_LINKS)) {
+            return Stream.empty();
+        }
+        Queue<SourceObject> found = new ConcurrentLinkedQueue<>();
+        try {
+            walk(root, start, namePrefix, new Semaphore(readConcurrency), found).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        // Sort like an Object Storage listing, so runs over the same tree are repeatable.
+        List<SourceObject> objects = new ArrayList<>(found);
+        objects.sort(Comparator.comparing(SourceObject::name));
+        return objects.stream();
+    }
+
+    /**
+     * Reads files in parallel, emitting them in the order of the source stream. Up to readConcurrency files are read
+     * at once. Files that fail to read are logged and skipped.
+     *
+     * @param location the directory holding the files.
+     * @param objects the files to read, by relative path. Consumed lazily, as documents are consumed.
+     * @return a stream of documents. Closing the stream cancels any outstanding reads, but does not close the source
+     * stream.
+     */
+    @Override
+    public Stream<Document> fetchDocuments(String location, Stream<SourceObject> objects) {
+        Path root = root(location);
+        ParallelFetchSpliterator<SourceObject, Document> documents = new ParallelFetchSpliterator<>(
+                objects.iterator(),
+                o -> {
+                    try {
+                        return readDocument(root, o.name());
+                    } catch (Exception e) {
+                        log.error("Failed to read file {} from directory {}", o.name(), location, e);
+                        return null;
+                    }
+                },
+                executor,
+                readConcurrency
+        );
+        return StreamSupport.stream(documents, false)
+                .filter(Objects::nonNull)
+                .onClose(documents::close);
+    }
+
+    /**
+     * Shuts down the loader's threads, interrupting any outstanding reads. Streams from the loader must not be used
+     * afterwards.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static Path root(String location) {
+        return Path.of(location).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Lists a directory on a virtual thread, and each matching subdirectory on its own. A permit is only held while
+     * a directory is being listed, never while waiting for subdirectories.
+     */
+    private CompletableFuture<Void> walk(Path root, Path directory, String prefix, Semaphore permits, Queue<SourceObject> found) {
+        return CompletableFuture.supplyAsync(() -> {
+            List<CompletableFuture<Void>> subdirectories = new ArrayList<>();
+            int files = 0;
+            long start = System.nanoTime();
+            permits.acquireUninterruptibly();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    String name = name(root, entry);
+                    if (attributes.isDirectory()) {
+                        String path = name + "/";
+                        if (path.startsWith(prefix) || prefix.startsWith(path)) {
+                            subdirectories.add(walk(root, entry, prefix, permits, found));
+                        }
+                    } else if (attributes.isRegularFile() && name.startsWith(prefix)) {
+                        found.add(new SourceObject(name, etag(attributes), attributes.size()));
+                        files++;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                permits.release();
+            }
+            metrics.objectsListed(files, System.nanoTime() - start);
+            return subdirectories;
+        }, executor).thenCompose(subdirectories -> CompletableFuture.allOf(subdirectories.toArray(CompletableFuture[]::new)));
+    }
+
+    private static String name(Path root, Path file) {
+        String name = root.relativize(file).toString();
+        return File.separatorChar == '/' ? name : name.replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Versions a file by its modification time and size, so files are not read to detect changes.
+     */
+    private static String etag(BasicFileAttributes attributes) {
+        Instant modified = attributes.lastModifiedTime().toInstant();
+        return Long.toHexString(modified.getEpochSecond()) + "." + Integer.toHexString(modified.getNano())
+                + "-" + Long.toHexString(attributes.size());
+    }
+
+    private Document readDocument(Path root, String name) throws IOException {
+        Path file = root.resolve(name).normalize();
+        if (!file.startsWith(root)) {
+            throw new IOException(String.format("File %s is outside directory %s", name, root));
+        }
+        long start = System.nanoTime();
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        SourceObject source = new SourceObject(name, etag(attributes), attributes.size());
+        if (attributes.size() >= mapThreshold) {
+            metrics.objectFetched(attributes.size(), System.nanoTime() - start);
+            // Read as the document is split, so only the mapped pages in use are resident.
+            return new Document(source, null, () -> new MappedTextReader(file, regionSize));
+        }
+        if (attributes.size() > MAX_FILE_SIZE) {
+            throw new IOException(String.format("File %s is too large to load: %d bytes", name, attributes.size()));
+        }
+        byte[] body = Files.readAllBytes(file);
+        metrics.objectFetched(body.length, System.nanoTime() - start);
+        return new Document(new SourceObject(name, source.etag(), body.length), new String(body, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.documentloader;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Reads a UTF-8 file by decoding memory-mapped regions of it, one region at a time. The decoder reads straight from
+ * the mapped pages, and decodes into a small buffer, so the heap used does not grow with the file.
+ * <p>
+ * Malformed bytes are replaced, as {@link String#String(byte[], java.nio.charset.Charset)} does.
+ */
+class MappedTextReader extends Reader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final FileChannel channel;
+    private final long size;
+    /**
+     * Number of bytes mapped at once.
+     */
+    private final long regionSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final CharBuffer decoded = CharBuffer.allocate(BUFFER_SIZE).flip();
+    private MappedByteBuffer region;
+    private long regionStart;
+    // Whether the rest of the region must be mapped again with the next region, and whether the file is decoded.
+    private boolean remap = true;
+    private boolean endOfInput;
+
+    MappedTextReader(Path file, long regionSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.regionSize = regionSize;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        Objects.checkFromIndexSize(offset, length, buffer.length);
+        if (!channel.isOpen()) {
+            throw new IOException("Reader is closed");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!decoded.hasRemaining() && !decode()) {
+            return -1;
+        }
+        int read = Math.min(length, decoded.remaining());
+        decoded.get(buffer, offset, read);
+        return read;
+    }
+
+    /**
+     * Decodes the next chars into the buffer.
+     *
+     * @return false at the end of the file.
+     */
+    private boolean decode() throws IOException {
+        decoded.clear();
+        while (decoded.position() == 0 && !endOfInput) {
+            if (remap) {
+                // The bytes of a character split across regions are left undecoded, and mapped again with the next region.
+                long position = region == null ? 0 : regionStart + region.position();
+                region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(regionSize, size - position));
+                regionStart = position;
+                remap = false;
+            }
+            boolean last = regionStart + region.limit() == size;
+            CoderResult result = decoder.decode(region, decoded, last);
+            if (result.isError()) {
+                result.throwException();
+            }
+            if (result.isUnderflow()) {
+                if (last) {
+                    decoder.flush(decoded);
+                    endOfInput = true;
+                } else {
+                    remap = true;
+                }
+            }
+        }
+        decoded.flip();
+        return decoded.hasRemaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        region = null;
+        channel.close();
+    }
+}
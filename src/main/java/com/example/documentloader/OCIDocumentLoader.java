@@ -1,88 +1,207 @@
 package com.example.documentloader;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.channels.ClosedByInterruptException;
 import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.example.metrics.FlowMetrics;
+import com.example.metrics.ObjectStorageGetEvent;
+import com.example.metrics.ObjectStorageListEvent;
+import com.example.model.Document;
+import com.example.model.SourceObject;
 import com.oracle.bmc.objectstorage.ObjectStorage;
-import com.oracle.bmc.objectstorage.model.ObjectSummary;
+import com.oracle.bmc.objectstorage.model.ListObjects;
 import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
 import com.oracle.bmc.objectstorage.requests.ListObjectsRequest;
 import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
-import com.oracle.bmc.objectstorage.responses.ListObjectsResponse;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Loads documents from an OCI Object Storage bucket. Listing pages are prefetched, and up to fetchConcurrency
+ * objects are downloaded in parallel.
+ */
 @Slf4j
-public class OCIDocumentLoader {
+public class OCIDocumentLoader implements DocumentLoader {
+    /**
+     * Default number of objects downloaded in parallel.
+     */
+    public static final int DEFAULT_FETCH_CONCURRENCY = 8;
+
     private final ObjectStorage objectStorage;
     private final String namespace;
+    /**
+     * Maximum number of GetObject requests in flight for each document stream.
+     */
+    private final int fetchConcurrency;
+    private final FlowMetrics metrics;
+    /**
+     * Runs listing and download requests. Virtual threads are used, as each request blocks on network I/O.
+     */
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
 
     public OCIDocumentLoader(ObjectStorage objectStorage, String namespace) {
+        this(objectStorage, namespace, DEFAULT_FETCH_CONCURRENCY);
+    }
+
+    public OCIDocumentLoader(ObjectStorage objectStorage, String namespace, int fetchConcurrency) {
+        this(objectStorage, namespace, fetchConcurrency, FlowMetrics.NOOP);
+    }
+
+    /**
+     * @param metrics receives the size and latency of each request.
+     */
+    public OCIDocumentLoader(ObjectStorage objectStorage, String namespace, int fetchConcurrency, FlowMetrics metrics) {
+        if (fetchConcurrency < 1) {
+            throw new IllegalArgumentException("fetchConcurrency must be positive: " + fetchConcurrency);
+        }
         this.objectStorage = objectStorage;
         this.namespace = namespace;
+        this.fetchConcurrency = fetchConcurrency;
+        this.metrics = Objects.requireNonNull(metrics, "metrics");
     }
 
-    public Stream<String> streamDocuments(String bucket, String prefix) {
-        return listObjects(bucket, prefix).stream()
-                .map(o -> {
+    /**
+     * Lazily lists the objects in a bucket with the given prefix, with their ETags and sizes. Directory markers
+     * are skipped. Listing pages are prefetched.
+     *
+     * @param bucket the bucket to list.
+     * @param prefix the object prefix to list.
+     * @return a stream of objects in name order. Closing the stream cancels the prefetched page.
+     */
+    @Override
+    public Stream<SourceObject> listObjects(String bucket, String prefix) {
+        ObjectPageSpliterator pages = new ObjectPageSpliterator(start -> CompletableFuture.supplyAsync(() -> listObjects(bucket, prefix, start), executor));
+        return StreamSupport.stream(pages, false)
+                // ignore empty objects and directories
+                .filter(o -> !o.getName().endsWith("/"))
+                .map(o -> new SourceObject(o.getName(), o.getEtag(), Objects.requireNonNullElse(o.getSize(), 0L)))
+                .onClose(pages::close);
+    }
+
+    /**
+     * Downloads objects in parallel, emitting them in the order of the source stream. Up to fetchConcurrency
+     * objects are downloaded at once. Objects that fail to download are logged and skipped.
+     *
+     * @param bucket the bucket holding the objects.
+     * @param objects the objects to download. Consumed lazily, as documents are consumed.
+     * @return a stream of documents, identified by the ETag and size of the downloaded content. Closing the stream
+     * cancels any outstanding requests, but does not close the source stream.
+     */
+    @Override
+    public Stream<Document> fetchDocuments(String bucket, Stream<SourceObject> objects) {
+        ParallelFetchSpliterator<SourceObject, Document> documents = new ParallelFetchSpliterator<>(
+                objects.iterator(),
+                o -> {
                     try {
-                        return getObjectText(bucket, o);
+                        return getDocument(bucket, o.name());
                     } catch (Exception e) {
-                        log.error("Failed to retrieve object {} text from bucket {}", bucket, o, e);
+                        if (cancelled(e)) {
+                            log.debug("Cancelled retrieving object {} from bucket {}", o.name(), bucket);
+                        } else {
+                            log.error("Failed to retrieve object {} text from bucket {}", o.name(), bucket, e);
+                        }
                         return null;
                     }
-                }).filter(Objects::nonNull);
+                },
+                executor,
+                fetchConcurrency
+        );
+        return StreamSupport.stream(documents, false)
+                .filter(Objects::nonNull)
+                .onClose(documents::close);
+    }
+
+    /**
+     * Shuts down the loader's threads, interrupting any outstanding requests. Interrupted requests are logged at
+     * debug rather than as failures. Streams from the loader must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
     }
 
-    private String getObjectText(String bucket, String key) throws IOException {
+    /**
+     * @return true if a fetch failed because it was interrupted, by closing its stream or the loader, rather than
+     * because the object could not be read.
+     */
+    private boolean cancelled(Throwable failure) {
+        if (Thread.currentThread().isInterrupted() || executor.isShutdown()) {
+            return true;
+        }
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof InterruptedException || t instanceof InterruptedIOException || t instanceof ClosedByInterruptException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Document getDocument(String bucket, String key) throws IOException {
         GetObjectRequest request = GetObjectRequest.builder()
                 .namespaceName(namespace)
                 .bucketName(bucket)
                 .objectName(key)
                 .build();
+        ObjectStorageGetEvent event = new ObjectStorageGetEvent();
+        event.begin();
+        long start = System.nanoTime();
         GetObjectResponse response = objectStorage.getObject(request);
-        InputStream in = response.getInputStream();
-        ByteArrayOutputStream buff = new ByteArrayOutputStream();
-        byte[] data = new byte[1024];
-        int read;
-        while ((read = in.read(data, 0, data.length)) != -1) {
-            buff.write(data, 0, read);
+        byte[] body = readBody(key, response);
+        metrics.objectFetched(body.length, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.bucket = bucket;
+            event.object = key;
+            event.bytes = body.length;
+            event.commit();
         }
-        buff.flush();
-        return buff.toString(StandardCharsets.UTF_8);
+        SourceObject source = new SourceObject(key, response.getETag(), body.length);
+        return new Document(source, new String(body, StandardCharsets.UTF_8));
     }
 
-    private List<String> listObjects(String bucket, String prefix) {
-        ListObjectsRequest.Builder requestBuilder = ListObjectsRequest.builder()
-                .namespaceName(namespace)
-                .bucketName(bucket)
-                .prefix(prefix);
-        ListObjectsResponse response = objectStorage.listObjects(requestBuilder.build());
-        List<String> objectNames = new ArrayList<>(toObjectNames(response));
-        while (response.getListObjects().getNextStartWith() != null) {
-            requestBuilder = ListObjectsRequest.builder()
-                    .namespaceName(namespace)
-                    .bucketName(bucket)
-                    .prefix(prefix)
-                    .start(response.getListObjects().getNextStartWith());
-            response = objectStorage.listObjects(requestBuilder.build());
-            objectNames.addAll(toObjectNames(response));
+    private static byte[] readBody(String key, GetObjectResponse response) throws IOException {
+        try (InputStream in = response.getInputStream()) {
+            Long contentLength = response.getContentLength();
+            if (contentLength == null) {
+                return in.readAllBytes();
+            }
+            // Read the body into a buffer of exactly the object size, avoiding repeated array growth.
+            byte[] body = new byte[Math.toIntExact(contentLength)];
+            int read = in.readNBytes(body, 0, body.length);
+            if (read != body.length) {
+                throw new IOException(String.format("Object %s ended after %d of %d bytes", key, read, body.length));
+            }
+            return body;
         }
-        return objectNames;
     }
 
-    private List<String> toObjectNames(ListObjectsResponse response) {
-        return response.getListObjects().getObjects()
-                .stream()
-                .map(ObjectSummary::getName)
-                .filter(name -> !name.endsWith("/"))
-                // ignore empty objects and directories
-                .collect(Collectors.toList());
+    private ListObjects listObjects(String bucket, String prefix, String start) {
+        ListObjectsRequest request = ListObjectsRequest.builder()
+                .namespaceName(namespace)
+                .bucketName(bucket)
+                .prefix(prefix)
+                .start(start)
+                // Only the fields needed to detect changed objects are listed.
+                .fields("name,etag,size")
+                .build();
+        ObjectStorageListEvent event = new ObjectStorageListEvent();
+        event.begin();
+        long startNanos = System.nanoTime();
+        ListObjects page = objectStorage.listObjects(request).getListObjects();
+        metrics.objectsListed(page.getObjects().size(), System.nanoTime() - startNanos);
+        if (event.shouldCommit()) {
+            event.bucket = bucket;
+            event.prefix = prefix;
+            event.objects = page.getObjects().size();
+            event.commit();
+        }
+        return page;
     }
 }
@@ -0,0 +1,66 @@
+package com.example.documentloader;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import com.oracle.bmc.objectstorage.model.ListObjects;
+import com.oracle.bmc.objectstorage.model.ObjectSummary;
+
+/**
+ * Lazily walks the pages of an object listing. The next page is requested as soon as the current page arrives,
+ * so the following round-trip overlaps with consumption of the current page.
+ */
+class ObjectPageSpliterator extends Spliterators.AbstractSpliterator<ObjectSummary> {
+    /**
+     * Requests the page that starts with the given object name, or the first page if the name is null.
+     */
+    private final Function<String, CompletableFuture<ListObjects>> pageLoader;
+    private CompletableFuture<ListObjects> nextPage;
+    private Iterator<ObjectSummary> currentPage = Collections.emptyIterator();
+
+    ObjectPageSpliterator(Function<String, CompletableFuture<ListObjects>> pageLoader) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+        this.pageLoader = pageLoader;
+        this.nextPage = pageLoader.apply(null);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super ObjectSummary> action) {
+        while (!currentPage.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            ListObjects page = join(nextPage);
+            nextPage = page.getNextStartWith() == null ? null : pageLoader.apply(page.getNextStartWith());
+            currentPage = page.getObjects().iterator();
+        }
+        action.accept(currentPage.next());
+        return true;
+    }
+
+    /**
+     * Cancels the prefetched page, if any.
+     */
+    void close() {
+        if (nextPage != null) {
+            nextPage.cancel(false);
+        }
+    }
+
+    private static ListObjects join(CompletableFuture<ListObjects> page) {
+        try {
+            return page.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.documentloader;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Applies a blocking fetch function to each source element on an executor, keeping at most {@code concurrency}
+ * fetches in flight. Results are emitted in source order, and the source is only advanced as results are consumed.
+ *
+ * @param <T> the source element type.
+ * @param <R> the fetched result type.
+ */
+class ParallelFetchSpliterator<T, R> extends Spliterators.AbstractSpliterator<R> {
+    private final Iterator<T> source;
+    private final Function<T, R> fetch;
+    private final Executor executor;
+    private final int concurrency;
+    private final Deque<FutureTask<R>> inFlight;
+
+    ParallelFetchSpliterator(Iterator<T> source, Function<T, R> fetch, Executor executor, int concurrency) {
+        super(Long.MAX_VALUE, Spliterator.ORDERED);
+        this.source = source;
+        this.fetch = fetch;
+        this.executor = executor;
+        this.concurrency = concurrency;
+        this.inFlight = new ArrayDeque<>(concurrency);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super R> action) {
+        while (inFlight.size() < concurrency && source.hasNext()) {
+            T next = source.next();
+            // A FutureTask, unlike a CompletableFuture, interrupts its thread when cancelled.
+            FutureTask<R> task = new FutureTask<>(() -> fetch.apply(next));
+            executor.execute(task);
+            inFlight.add(task);
+        }
+        FutureTask<R> head = inFlight.poll();
+        if (head == null) {
+            return false;
+        }
+        R result;
+        try {
+            result = head.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        action.accept(result);
+        return true;
+    }
+
+    /**
+     * Cancels any fetches that have not been consumed. Fetches that have not started are skipped, and fetches in
+     * progress are interrupted, which aborts their blocking I/O.
+     */
+    void close() {
+        inFlight.forEach(f -> f.cancel(true));
+        inFlight.clear();
+    }
+}
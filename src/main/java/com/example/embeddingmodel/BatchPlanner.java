@@ -0,0 +1,81 @@
+package com.example.embeddingmodel;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.splitter.TokenEstimator;
+
+/**
+ * Plans the embedding requests for a list of inputs.
+ * <p>
+ * Duplicate inputs are collapsed so each distinct string is embedded once. The distinct inputs are then packed, in
+ * order, into batches bounded by both the maximum number of inputs and the estimated token cost of a request.
+ */
+class BatchPlanner {
+    private final int maxInputs;
+    private final int maxInputTokens;
+    private final int maxBatchTokens;
+    private final TokenEstimator tokenEstimator;
+
+    /**
+     * @param maxInputs the maximum number of inputs in a batch.
+     * @param maxInputTokens the maximum tokens the service reads from one input. Longer inputs are truncated or
+     *                       rejected by the service, so their cost is capped at this value.
+     * @param maxBatchTokens the maximum estimated tokens in a batch.
+     * @param tokenEstimator estimates the tokens in each input.
+     */
+    BatchPlanner(int maxInputs, int maxInputTokens, int maxBatchTokens, TokenEstimator tokenEstimator) {
+        this.maxInputs = maxInputs;
+        this.maxInputTokens = maxInputTokens;
+        this.maxBatchTokens = maxBatchTokens;
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    Plan plan(List<String> inputs) {
+        Map<String, Integer> distinct = new HashMap<>();
+        int[] positions = new int[inputs.size()];
+        List<Batch> batches = new ArrayList<>();
+        List<String> batch = new ArrayList<>();
+        int batchTokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            String input = inputs.get(i);
+            Integer index = distinct.get(input);
+            if (index == null) {
+                index = distinct.size();
+                distinct.put(input, index);
+                int tokens = Math.min(tokenEstimator.estimate(input), maxInputTokens);
+                if (!batch.isEmpty() && (batch.size() == maxInputs || batchTokens + tokens > maxBatchTokens)) {
+                    batches.add(new Batch(batch, batchTokens));
+                    batch = new ArrayList<>();
+                    batchTokens = 0;
+                }
+                batch.add(input);
+                batchTokens += tokens;
+            }
+            positions[i] = index;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(new Batch(batch, batchTokens));
+        }
+        return new Plan(batches, positions, distinct.size());
+    }
+
+    /**
+     * A planned embedding request.
+     *
+     * @param inputs the distinct inputs to embed.
+     * @param tokens the estimated token cost of the request.
+     */
+    record Batch(List<String> inputs, int tokens) {}
+
+    /**
+     * The embedding requests for a list of inputs.
+     *
+     * @param batches the requests to send. Concatenating their inputs gives the distinct inputs in order.
+     * @param positions for each original input, the index of its distinct input.
+     * @param distinctInputs the number of distinct inputs.
+     */
+    record Plan(List<Batch> batches, int[] positions, int distinctInputs) {}
+}
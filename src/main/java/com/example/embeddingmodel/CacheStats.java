@@ -0,0 +1,19 @@
+package com.example.embeddingmodel;
+
+/**
+ * Lookup counts for a {@link CachingEmbeddingModel}. Each distinct chunk in an embedAll call counts once.
+ *
+ * @param memoryHits chunks found in the in-memory cache.
+ * @param persistentHits chunks found in the persistent cache.
+ * @param misses chunks sent to the embedding model.
+ */
+public record CacheStats(long memoryHits, long persistentHits, long misses) {
+    public long hits() {
+        return memoryHits + persistentHits;
+    }
+
+    public double hitRate() {
+        long lookups = hits() + misses;
+        return lookups == 0 ? 0 : (double) hits() / lookups;
+    }
+}
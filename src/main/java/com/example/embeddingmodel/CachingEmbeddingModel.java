@@ -0,0 +1,117 @@
+package com.example.embeddingmodel;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.model.Embedding;
+import lombok.Builder;
+
+/**
+ * Caches the embeddings produced by another model, so unchanged chunks are not embedded again.
+ * <p>
+ * Embeddings are keyed by a SHA-256 hash of the model id and the chunk text. The model id includes the truncate
+ * mode, so changing the model or its truncation never returns stale vectors. Lookups check the in-memory cache,
+ * then the persistent cache, and only the remaining misses are sent to the model in a single embedAll call.
+ */
+public class CachingEmbeddingModel implements EmbeddingModel {
+    public static final int DEFAULT_MEMORY_CACHE_SIZE = 10_000;
+
+    private final EmbeddingModel delegate;
+    private final EmbeddingCache memoryCache;
+    /**
+     * Optional persistent cache, such as an OracleEmbeddingCache. May be null.
+     */
+    private final EmbeddingCache persistentCache;
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Builder
+    public CachingEmbeddingModel(EmbeddingModel delegate, EmbeddingCache memoryCache, EmbeddingCache persistentCache) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.memoryCache = memoryCache == null ? new LruEmbeddingCache(DEFAULT_MEMORY_CACHE_SIZE) : memoryCache;
+        this.persistentCache = persistentCache;
+    }
+
+    @Override
+    public List<Embedding> embedAll(List<String> chunks) {
+        // Distinct chunks by cache key.
+        Map<String, String> texts = new LinkedHashMap<>();
+        List<String> keys = new ArrayList<>(chunks.size());
+        MessageDigest digest = sha256();
+        String modelId = delegate.id();
+        for (String chunk : chunks) {
+            String key = key(digest, modelId, chunk);
+            keys.add(key);
+            texts.putIfAbsent(key, chunk);
+        }
+
+        Map<String, float[]> vectors = new LinkedHashMap<>(memoryCache.getAll(texts.keySet()));
+        memoryHits.addAndGet(vectors.size());
+        if (persistentCache != null && vectors.size() < texts.size()) {
+            Map<String, float[]> found = persistentCache.getAll(missing(texts, vectors));
+            persistentHits.addAndGet(found.size());
+            memoryCache.putAll(found);
+            vectors.putAll(found);
+        }
+        if (vectors.size() < texts.size()) {
+            List<String> missingKeys = missing(texts, vectors);
+            misses.addAndGet(missingKeys.size());
+            List<Embedding> embedded = delegate.embedAll(missingKeys.stream().map(texts::get).toList());
+            Map<String, float[]> added = new LinkedHashMap<>();
+            for (int i = 0; i < missingKeys.size(); i++) {
+                added.put(missingKeys.get(i), embedded.get(i).vector());
+            }
+            memoryCache.putAll(added);
+            if (persistentCache != null) {
+                persistentCache.putAll(added);
+            }
+            vectors.putAll(added);
+        }
+
+        List<Embedding> embeddings = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            embeddings.add(new Embedding(vectors.get(keys.get(i)), chunks.get(i)));
+        }
+        return embeddings;
+    }
+
+    @Override
+    public String id() {
+        return delegate.id();
+    }
+
+    /**
+     * @return the cache lookup counts since this model was created.
+     */
+    public CacheStats stats() {
+        return new CacheStats(memoryHits.get(), persistentHits.get(), misses.get());
+    }
+
+    private static List<String> missing(Map<String, String> texts, Map<String, float[]> found) {
+        return texts.keySet().stream().filter(k -> !found.containsKey(k)).toList();
+    }
+
+    private static String key(MessageDigest digest, String modelId, String text) {
+        digest.update(modelId.getBytes(StandardCharsets.UTF_8));
+        // Separate the model id from the text, so no id and text pair collides with another.
+        digest.update((byte) 0);
+        return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
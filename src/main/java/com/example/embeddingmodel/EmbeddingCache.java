@@ -0,0 +1,24 @@
+package com.example.embeddingmodel;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A store of embedding vectors keyed by content hash, used by {@link CachingEmbeddingModel}.
+ */
+public interface EmbeddingCache {
+    /**
+     * Looks up cached vectors.
+     *
+     * @param keys the keys to look up.
+     * @return the cached vectors by key. Keys that are not cached are absent.
+     */
+    Map<String, float[]> getAll(Collection<String> keys);
+
+    /**
+     * Adds vectors to the cache.
+     *
+     * @param entries the vectors to add, by key.
+     */
+    void putAll(Map<String, float[]> entries);
+}
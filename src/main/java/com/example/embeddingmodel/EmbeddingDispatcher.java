@@ -0,0 +1,174 @@
+package com.example.embeddingmodel;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongUnaryOperator;
+import java.util.function.Supplier;
+
+import com.example.metrics.FlowMetrics;
+import com.oracle.bmc.model.BmcException;
+
+/**
+ * Sends embedding requests under an adaptive concurrency limit and optional rate budgets, retrying requests that
+ * are throttled or fail with a transient error.
+ * <p>
+ * The concurrency limit is additive increase, multiplicative decrease: each successful request raises the limit by
+ * 1/limit, about one per round trip at full concurrency, and a throttled request halves it. Other failures leave
+ * the limit unchanged, so a failing endpoint is not sent more requests. Requests that were
+ * already in flight when the limit was cut don't cut it again, so a burst of 429s halves the limit once. Retries
+ * wait for an exponential backoff with full jitter, so throttled callers don't retry in lockstep.
+ */
+class EmbeddingDispatcher {
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(20);
+
+    private final int maxConcurrency;
+    private final RateBudget requestBudget;
+    private final RateBudget tokenBudget;
+    private final int maxRetries;
+    private final long retryBackoffNanos;
+    private final FlowMetrics metrics;
+    private final NanoClock clock;
+    private final LongUnaryOperator jitter;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long lastDecrease;
+
+    /**
+     * @param initialConcurrency the concurrency limit before any requests complete.
+     * @param maxConcurrency the upper bound on the concurrency limit.
+     * @param requestsPerMinute the request budget, or null for no budget.
+     * @param tokensPerMinute the estimated token budget, or null for no budget.
+     * @param maxRetries the number of times a request is retried before its error is thrown.
+     * @param retryBackoff the backoff before the first retry. Doubles with each retry.
+     * @param metrics receives each retry.
+     */
+    EmbeddingDispatcher(int initialConcurrency, int maxConcurrency, Long requestsPerMinute, Long tokensPerMinute,
+                        int maxRetries, Duration retryBackoff, FlowMetrics metrics) {
+        this(initialConcurrency, maxConcurrency, requestsPerMinute, tokensPerMinute, maxRetries, retryBackoff, metrics,
+                NanoClock.SYSTEM, ceiling -> ThreadLocalRandom.current().nextLong(ceiling + 1));
+    }
+
+    /**
+     * @param clock the time source that rate budgets, throttling windows and backoffs use.
+     * @param jitter picks the backoff before each retry, given the exponential backoff ceiling.
+     */
+    EmbeddingDispatcher(int initialConcurrency, int maxConcurrency, Long requestsPerMinute, Long tokensPerMinute,
+                        int maxRetries, Duration retryBackoff, FlowMetrics metrics, NanoClock clock,
+                        LongUnaryOperator jitter) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.limit = Math.min(initialConcurrency, maxConcurrency);
+        this.requestBudget = requestsPerMinute == null ? null : new RateBudget(requestsPerMinute, clock);
+        this.tokenBudget = tokensPerMinute == null ? null : new RateBudget(tokensPerMinute, clock);
+        this.maxRetries = maxRetries;
+        this.retryBackoffNanos = retryBackoff.toNanos();
+        this.metrics = metrics;
+        this.clock = clock;
+        this.jitter = jitter;
+        this.lastDecrease = clock.nanoTime();
+    }
+
+    /**
+     * Sends a request, retrying it on throttling and transient errors.
+     *
+     * @param tokens the estimated tokens in the request, charged against the token budget on each attempt.
+     * @param request sends the request.
+     * @return the response.
+     * @throws BmcException if the request fails with a non-retryable error, or after maxRetries retries.
+     */
+    <T> T send(int tokens, Supplier<T> request) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            if (requestBudget != null) {
+                requestBudget.acquire(1);
+            }
+            if (tokenBudget != null) {
+                tokenBudget.acquire(tokens);
+            }
+            long started = acquire();
+            try {
+                T response = request.get();
+                release(started, Outcome.SUCCEEDED);
+                return response;
+            } catch (BmcException e) {
+                release(started, isThrottled(e) ? Outcome.THROTTLED : Outcome.FAILED);
+                if (attempt >= maxRetries || !isRetryable(e)) {
+                    throw e;
+                }
+                long backoff = jitter.applyAsLong(backoffCeiling(attempt));
+                metrics.embeddingRetried(e.getStatusCode(), backoff);
+                clock.sleep(backoff);
+            } catch (RuntimeException | Error e) {
+                release(started, Outcome.FAILED);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return the current concurrency limit, rounded down.
+     */
+    int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+            return clock.nanoTime();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum Outcome {
+        SUCCEEDED,
+        THROTTLED,
+        FAILED
+    }
+
+    private void release(long started, Outcome outcome) {
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.SUCCEEDED) {
+                limit = Math.min(maxConcurrency, limit + 1 / limit);
+            } else if (outcome == Outcome.THROTTLED && started - lastDecrease > 0) {
+                limit = Math.max(1, limit / 2);
+                lastDecrease = clock.nanoTime();
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long backoffCeiling(int attempt) {
+        return Math.min(MAX_BACKOFF.toNanos(), retryBackoffNanos << Math.min(attempt, 20));
+    }
+
+    /**
+     * 429 and 503 mean the service is over capacity, so the concurrency limit is cut.
+     */
+    private static boolean isThrottled(BmcException e) {
+        return e.getStatusCode() == 429 || e.getStatusCode() == 503;
+    }
+
+    private static boolean isRetryable(BmcException e) {
+        return isThrottled(e) || e.getStatusCode() >= 500 || e.isTimeout();
+    }
+}
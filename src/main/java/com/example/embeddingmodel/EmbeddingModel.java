@@ -0,0 +1,38 @@
+package com.example.embeddingmodel;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.model.Embedding;
+
+/**
+ * Embeds text chunks as vectors.
+ */
+public interface EmbeddingModel {
+    /**
+     * Embeds a list of text chunks.
+     *
+     * @param chunks the text chunks to embed.
+     * @return the embeddings, in the same order as the chunks.
+     */
+    List<Embedding> embedAll(List<String> chunks);
+
+    /**
+     * Embeds a list of text chunks without blocking the caller. By default, {@link #embedAll(List)} runs on a new
+     * virtual thread, which releases its carrier thread while waiting on the network.
+     *
+     * @param chunks the text chunks to embed.
+     * @return a future of the embeddings, in the same order as the chunks.
+     */
+    default CompletableFuture<List<Embedding>> embedAllAsync(List<String> chunks) {
+        return CompletableFuture.supplyAsync(() -> embedAll(chunks), runnable -> Thread.ofVirtual().start(runnable));
+    }
+
+    /**
+     * Identifies the model and any settings that change the vectors it produces, such as truncation.
+     * Embeddings produced by models with the same id are interchangeable.
+     *
+     * @return the model id.
+     */
+    String id();
+}
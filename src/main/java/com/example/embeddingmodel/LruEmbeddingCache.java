@@ -0,0 +1,47 @@
+package com.example.embeddingmodel;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory embedding cache that holds up to maxEntries vectors, evicting the least recently used.
+ */
+public class LruEmbeddingCache implements EmbeddingCache {
+    private final Map<String, float[]> entries;
+
+    public LruEmbeddingCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be positive: " + maxEntries);
+        }
+        // An access ordered map iterates from least to most recently used.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized Map<String, float[]> getAll(Collection<String> keys) {
+        Map<String, float[]> result = new HashMap<>();
+        for (String key : keys) {
+            float[] vector = entries.get(key);
+            if (vector != null) {
+                result.put(key, vector);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void putAll(Map<String, float[]> entries) {
+        this.entries.putAll(entries);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+}
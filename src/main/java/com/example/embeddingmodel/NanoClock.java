@@ -0,0 +1,32 @@
+package com.example.embeddingmodel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time source and sleep used to pace embedding requests, so tests can control time.
+ */
+interface NanoClock {
+    NanoClock SYSTEM = new NanoClock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleep(long nanos) throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    };
+
+    /**
+     * @return the current time, as {@link System#nanoTime()}.
+     */
+    long nanoTime();
+
+    /**
+     * Blocks the calling thread.
+     *
+     * @param nanos the time to sleep.
+     */
+    void sleep(long nanos) throws InterruptedException;
+}
@@ -1,11 +1,19 @@
 package com.example.embeddingmodel;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import com.example.metrics.EmbedTextEvent;
+import com.example.metrics.FlowMetrics;
 import com.example.model.Embedding;
+import com.example.splitter.TokenEstimator;
+import com.example.vectormath.VectorMath;
 import com.oracle.bmc.generativeaiinference.GenerativeAiInference;
 import com.oracle.bmc.generativeaiinference.model.DedicatedServingMode;
 import com.oracle.bmc.generativeaiinference.model.EmbedTextDetails;
@@ -13,17 +21,30 @@ import com.oracle.bmc.generativeaiinference.model.OnDemandServingMode;
 import com.oracle.bmc.generativeaiinference.model.ServingMode;
 import com.oracle.bmc.generativeaiinference.requests.EmbedTextRequest;
 import com.oracle.bmc.generativeaiinference.responses.EmbedTextResponse;
+import com.oracle.bmc.retrier.RetryConfiguration;
 import lombok.Builder;
 
 /**
  * OCI GenAI implementation of Langchain4j EmbeddingModel
  */
-public class OCIEmbeddingModel {
+public class OCIEmbeddingModel implements EmbeddingModel {
     /**
      * OCI GenAI accepts a maximum of 96 inputs per embedding request. If the Langchain input is greater
      * than 96 segments, the input will be split into chunks of this size.
      */
-    private static final int EMBEDDING_BATCH_SIZE = 96;
+    public static final int EMBEDDING_BATCH_SIZE = 96;
+    /**
+     * OCI GenAI reads a maximum of 512 tokens from each input.
+     */
+    public static final int MAX_INPUT_TOKENS = 512;
+    /**
+     * The default estimated token budget of one request. Inputs are capped at MAX_INPUT_TOKENS, so a budget of a full
+     * batch of maximum length inputs would never close a batch. This budget closes a batch at 32 maximum length
+     * inputs, keeping the payload, latency and retry cost of each request bounded when chunks are long.
+     */
+    public static final int DEFAULT_MAX_BATCH_TOKENS = 16 * 1024;
+    public static final int DEFAULT_MAX_RETRIES = 6;
+    public static final Duration DEFAULT_RETRY_BACKOFF = Duration.ofMillis(250);
 
     private final String model;
     protected final String compartmentId;
@@ -37,40 +58,153 @@ public class OCIEmbeddingModel {
      * If truncate is set to END, embeddings will be truncated to 512 tokens from the end of the input.
      */
     private final EmbedTextDetails.Truncate truncate;
+    /**
+     * Packs inputs into requests of at most EMBEDDING_BATCH_SIZE inputs and maxBatchTokens estimated tokens.
+     */
+    private final BatchPlanner batchPlanner;
+    /**
+     * Sends requests concurrently under an adaptive limit, and retries throttled requests.
+     */
+    private final EmbeddingDispatcher dispatcher;
+    private final FlowMetrics metrics;
 
+    /**
+     * @param maxBatchTokens the maximum estimated tokens sent in one request. Defaults to
+     *                       {@link #DEFAULT_MAX_BATCH_TOKENS}.
+     * @param tokenEstimator estimates the tokens in each input. Defaults to four characters per token.
+     * @param metrics receives the size and latency of each request. Defaults to {@link FlowMetrics#NOOP}.
+     * @param maxConcurrency the upper bound on concurrent requests. Defaults to the serving mode's maximum.
+     * @param requestsPerMinute the sustained request rate to stay under. Defaults to no limit.
+     * @param tokensPerMinute the sustained estimated token rate to stay under. Defaults to no limit.
+     * @param maxRetries the number of times a throttled or failed request is retried. Defaults to
+     *                   {@link #DEFAULT_MAX_RETRIES}.
+     * @param retryBackoff the backoff before the first retry, doubled for each retry. Defaults to
+     *                     {@link #DEFAULT_RETRY_BACKOFF}.
+     */
     @Builder
-    public OCIEmbeddingModel(ServingModeType servingModeType, String model, String compartmentId, GenerativeAiInference aiClient, EmbedTextDetails.Truncate truncate) {
+    public OCIEmbeddingModel(ServingModeType servingModeType, String model, String compartmentId, GenerativeAiInference aiClient, EmbedTextDetails.Truncate truncate, Integer maxBatchTokens, TokenEstimator tokenEstimator, FlowMetrics metrics,
+                             Integer maxConcurrency, Long requestsPerMinute, Long tokensPerMinute, Integer maxRetries, Duration retryBackoff) {
         this.model = model;
         this.compartmentId = compartmentId;
         this.aiClient = aiClient;
         this.truncate = truncate == null ? EmbedTextDetails.Truncate.None : truncate;
-        servingMode = servingMode(servingModeType == null ? ServingModeType.ON_DEMAND : servingModeType);
+        ServingModeType modeType = servingModeType == null ? ServingModeType.ON_DEMAND : servingModeType;
+        servingMode = servingMode(modeType);
+        batchPlanner = new BatchPlanner(
+                EMBEDDING_BATCH_SIZE,
+                MAX_INPUT_TOKENS,
+                Objects.requireNonNullElse(maxBatchTokens, DEFAULT_MAX_BATCH_TOKENS),
+                Objects.requireNonNullElse(tokenEstimator, TokenEstimator.DEFAULT)
+        );
+        this.metrics = Objects.requireNonNullElse(metrics, FlowMetrics.NOOP);
+        dispatcher = new EmbeddingDispatcher(
+                modeType.getInitialConcurrency(),
+                Objects.requireNonNullElse(maxConcurrency, modeType.getMaxConcurrency()),
+                requestsPerMinute,
+                tokensPerMinute,
+                Objects.requireNonNullElse(maxRetries, DEFAULT_MAX_RETRIES),
+                Objects.requireNonNullElse(retryBackoff, DEFAULT_RETRY_BACKOFF),
+                this.metrics
+        );
     }
 
     /**
      * Embeds the text content of a list of TextSegments.
+     * Duplicate chunks are embedded once, and their embedding is returned at each position the chunk appears.
+     * Requests are sent concurrently, up to the adaptive concurrency limit shared by every caller of this model.
      *
      * @param chunks the text chunks to embed.
-     * @return the embeddings.
+     * @return the embeddings, in the same order as the chunks.
      */
+    @Override
     public List<Embedding> embedAll(List<String> chunks) {
-        List<Embedding> embeddings = new ArrayList<>();
-        List<List<String>> batches = toBatches(chunks);
-        for (List<String> batch : batches) {
-            EmbedTextRequest embedTextRequest = toEmbedTextRequest(batch);
-            EmbedTextResponse response = aiClient.embedText(embedTextRequest);
-            embeddings.addAll(toEmbeddings(response, batch));
+        BatchPlanner.Plan plan = batchPlanner.plan(chunks);
+        float[][] vectors = new float[plan.distinctInputs()][];
+        List<BatchPlanner.Batch> batches = plan.batches();
+        if (batches.size() == 1) {
+            embedInto(batches.getFirst(), vectors, 0);
+        } else if (batches.size() > 1) {
+            embedConcurrently(batches, vectors);
+        }
+        List<Embedding> embeddings = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            embeddings.add(new Embedding(vectors[plan.positions()[i]], chunks.get(i)));
         }
         return embeddings;
     }
 
-    private List<List<String>> toBatches(List<String> textSegments) {
-        int size = textSegments.size();
-        List<List<String>> batches = new ArrayList<>();
-        for (int i = 0; i < textSegments.size(); i+=EMBEDDING_BATCH_SIZE) {
-            batches.add(textSegments.subList(i, Math.min(i + EMBEDDING_BATCH_SIZE, size)));
+    /**
+     * @return the model name and truncate mode, for example "cohere.embed-english-light-v2.0:NONE".
+     */
+    @Override
+    public String id() {
+        return model + ":" + truncate.getValue();
+    }
+
+    /**
+     * @return the current limit on concurrent embedding requests.
+     */
+    public int concurrencyLimit() {
+        return dispatcher.limit();
+    }
+
+    /**
+     * Sends each batch on its own virtual thread, writing the vectors of each batch at its offset in the plan.
+     */
+    private void embedConcurrently(List<BatchPlanner.Batch> batches, float[][] vectors) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(batches.size());
+            int offset = 0;
+            for (BatchPlanner.Batch batch : batches) {
+                int batchOffset = offset;
+                futures.add(executor.submit(() -> embedInto(batch, vectors, batchOffset)));
+                offset += batch.inputs().size();
+            }
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private void embedInto(BatchPlanner.Batch batch, float[][] vectors, int offset) {
+        EmbedTextResponse response;
+        try {
+            response = dispatcher.send(batch.tokens(), () -> embedText(batch));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        for (List<Float> embedding : response.getEmbedTextResult().getEmbeddings()) {
+            vectors[offset++] = toVector(embedding);
         }
-        return batches;
+    }
+
+    private EmbedTextResponse embedText(BatchPlanner.Batch batch) {
+        EmbedTextRequest embedTextRequest = toEmbedTextRequest(batch.inputs());
+        EmbedTextEvent event = new EmbedTextEvent();
+        event.begin();
+        long start = System.nanoTime();
+        EmbedTextResponse response = aiClient.embedText(embedTextRequest);
+        metrics.embeddingBatch(batch.inputs().size(), batch.tokens(), System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.model = model;
+            event.inputs = batch.inputs().size();
+            event.tokens = batch.tokens();
+            event.commit();
+        }
+        return response;
     }
 
     private EmbedTextRequest toEmbedTextRequest(List<String> batch) {
@@ -80,21 +214,15 @@ public class OCIEmbeddingModel {
                 .inputs(batch)
                 .truncate(getTruncateOrDefault())
                 .build();
-        return EmbedTextRequest.builder().embedTextDetails(embedTextDetails).build();
+        return EmbedTextRequest.builder()
+                .embedTextDetails(embedTextDetails)
+                // The dispatcher retries throttled requests, and needs to see each 429 to adjust its limit.
+                .retryConfiguration(RetryConfiguration.NO_RETRY_CONFIGURATION)
+                .build();
     }
 
-    private List<Embedding> toEmbeddings(EmbedTextResponse response, List<String> batch) {
-        List<List<Float>> embeddings = response.getEmbedTextResult().getEmbeddings();
-        return IntStream.range(0, embeddings.size())
-                .mapToObj(i -> {
-                    List<Float> e = embeddings.get(i);
-                    float[] vector = new float[e.size()];
-                    for (int j = 0; j < e.size(); j++) {
-                        vector[j] = e.get(j);
-                    }
-                    return new Embedding(vector, batch.get(i));
-                })
-                .collect(Collectors.toList());
+    private float[] toVector(List<Float> embedding) {
+        return VectorMath.toFloats(embedding, new float[embedding.size()]);
     }
 
     private EmbedTextDetails.Truncate getTruncateOrDefault() {
@@ -0,0 +1,57 @@
+package com.example.embeddingmodel;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A per-minute budget of requests or tokens, refilled continuously.
+ * <p>
+ * Callers reserve permits before sending a request, and wait until the budget has refilled enough to cover them.
+ * The budget holds at most six seconds worth of permits, so an idle client can't burst far past its rate. A
+ * reservation larger than the budget is allowed, and delays the callers that follow it.
+ */
+class RateBudget {
+    private final double permitsPerNano;
+    private final double capacity;
+    private final NanoClock clock;
+    private double available;
+    private long updatedAt;
+
+    /**
+     * @param permitsPerMinute the sustained rate.
+     */
+    RateBudget(long permitsPerMinute) {
+        this(permitsPerMinute, NanoClock.SYSTEM);
+    }
+
+    /**
+     * @param permitsPerMinute the sustained rate.
+     * @param clock the time source the budget refills by, and waits on.
+     */
+    RateBudget(long permitsPerMinute, NanoClock clock) {
+        if (permitsPerMinute < 1) {
+            throw new IllegalArgumentException("permitsPerMinute must be positive: " + permitsPerMinute);
+        }
+        permitsPerNano = permitsPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        capacity = Math.max(1, permitsPerMinute / 10.0);
+        available = capacity;
+        this.clock = clock;
+        updatedAt = clock.nanoTime();
+    }
+
+    /**
+     * Reserves permits, blocking until they are covered by the budget.
+     */
+    void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = clock.nanoTime();
+            available = Math.min(capacity, available + (now - updatedAt) * permitsPerNano);
+            updatedAt = now;
+            available -= permits;
+            waitNanos = available >= 0 ? 0 : (long) (-available / permitsPerNano);
+        }
+        if (waitNanos > 0) {
+            clock.sleep(waitNanos);
+        }
+    }
+}
@@ -4,17 +4,29 @@ import lombok.Getter;
 
 /**
  * Serving Mode for OCI GenAI clusters.
+ * <p>
+ * Each mode has default limits for concurrent embedding requests. On-demand models share capacity across a tenancy
+ * and throttle early, so they start low. Dedicated clusters serve a single tenancy and sustain many more requests.
  */
 @Getter
 public enum ServingModeType {
 
-    ON_DEMAND("on-demand"),
-    DEDICATED("dedicated");
+    ON_DEMAND("on-demand", 2, 8),
+    DEDICATED("dedicated", 8, 32);
 
     private final String mode;
+    /**
+     * The concurrency limit before any requests have completed.
+     */
+    private final int initialConcurrency;
+    /**
+     * The default upper bound on the concurrency limit.
+     */
+    private final int maxConcurrency;
 
-    ServingModeType(String mode) {
+    ServingModeType(String mode, int initialConcurrency, int maxConcurrency) {
         this.mode = mode;
+        this.initialConcurrency = initialConcurrency;
+        this.maxConcurrency = maxConcurrency;
     }
 }
-
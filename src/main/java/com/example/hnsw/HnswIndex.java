@@ -0,0 +1,424 @@
+package com.example.hnsw;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.example.model.Embedding;
+import com.example.vectormath.VectorMath;
+import com.example.vectorstore.SearchResult;
+import lombok.Builder;
+
+/**
+ * An in-process Hierarchical Navigable Small World (HNSW) index for cosine similarity search.
+ * <p>
+ * Vectors are normalized and stored back to back in one float array, and the level 0 graph is stored in one int
+ * array, so a search walks primitive arrays rather than objects. Similarity is the dot product of unit vectors,
+ * computed with {@link VectorMath}. Searches run concurrently, and are blocked only while vectors are added.
+ * Each vector keeps its content and metadata, so search results match those of the database.
+ * Replaced and removed vectors are marked deleted and skipped by searches, but still route them. Once deleted nodes
+ * outnumber live ones, the graph is rebuilt from the live vectors, so their memory is reclaimed and searches do not
+ * slow down as vectors are replaced.
+ */
+public class HnswIndex {
+    private static final int DEFAULT_M = 16;
+    private static final int DEFAULT_EF_CONSTRUCTION = 200;
+    private static final int DEFAULT_EF_SEARCH = 64;
+    /**
+     * The fewest deleted nodes that trigger a rebuild, so small indexes are not rebuilt on every replacement.
+     */
+    private static final int MIN_DELETED_TO_COMPACT = 64;
+    private static final Comparator<Candidate> MOST_SIMILAR_FIRST = (a, b) -> Float.compare(b.score, a.score);
+    private static final Comparator<Candidate> LEAST_SIMILAR_FIRST = (a, b) -> Float.compare(a.score, b.score);
+
+    private final int dimensions;
+    /**
+     * The maximum neighbors per node on levels above 0. Level 0 allows twice as many.
+     */
+    private final int m;
+    private final int maxLevel0Neighbors;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Unit vectors, one after another.
+     */
+    private float[] vectors;
+    /**
+     * Level 0 neighbors of each node: a count followed by maxLevel0Neighbors slots.
+     */
+    private int[] level0;
+    /**
+     * Neighbors of each node on levels above 0, in the same layout as level0. Null for nodes only on level 0.
+     */
+    private int[][][] upperLevels;
+    private String[] ids;
+    private String[] contents;
+    private Map<String, Object>[] metadata;
+    private final BitSet deleted = new BitSet();
+    private final Map<String, Integer> nodesById = new HashMap<>();
+    private int size;
+    private int entryPoint = -1;
+    private int topLevel = -1;
+
+    /**
+     * @param dimensions the vector dimension count.
+     * @param m the maximum neighbors per node. Higher values improve recall at the cost of memory and insert time.
+     * @param efConstruction the candidates considered when inserting a vector.
+     * @param efSearch the candidates considered when searching. Raised to the result count when lower.
+     * @param initialCapacity the number of vectors to allocate space for.
+     */
+    @Builder
+    public HnswIndex(int dimensions, Integer m, Integer efConstruction, Integer efSearch, Integer initialCapacity) {
+        if (dimensions < 1) {
+            throw new IllegalArgumentException("dimensions must be positive: " + dimensions);
+        }
+        this.dimensions = dimensions;
+        this.m = Objects.requireNonNullElse(m, DEFAULT_M);
+        this.maxLevel0Neighbors = this.m * 2;
+        this.efConstruction = Objects.requireNonNullElse(efConstruction, DEFAULT_EF_CONSTRUCTION);
+        this.efSearch = Objects.requireNonNullElse(efSearch, DEFAULT_EF_SEARCH);
+        this.levelMultiplier = 1 / Math.log(this.m);
+        int capacity = Math.max(16, Objects.requireNonNullElse(initialCapacity, 1024));
+        this.vectors = new float[capacity * dimensions];
+        this.level0 = new int[capacity * (maxLevel0Neighbors + 1)];
+        this.upperLevels = new int[capacity][][];
+        this.ids = new String[capacity];
+        this.contents = new String[capacity];
+        this.metadata = newMetadataArray(capacity);
+    }
+
+    /**
+     * @return the number of searchable vectors.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds an embedding to the index, replacing any embedding with the same id.
+     *
+     * @param embedding the embedding to add. Its id must not be null.
+     */
+    public void add(Embedding embedding) {
+        Objects.requireNonNull(embedding.id(), "embedding id");
+        if (embedding.vector().length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + embedding.vector().length);
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = nodesById.remove(embedding.id());
+            if (existing != null) {
+                deleted.set(existing);
+                compactIfSparse();
+            }
+            insert(embedding.id(), embedding.vector(), 0, embedding.content(), embedding.metadata());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void addAll(List<Embedding> embeddings) {
+        embeddings.forEach(this::add);
+    }
+
+    /**
+     * Removes an embedding from search results.
+     *
+     * @param id the embedding id.
+     * @return true if the embedding was in the index.
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer node = nodesById.remove(id);
+            if (node == null) {
+                return false;
+            }
+            deleted.set(node);
+            compactIfSparse();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the approximate nearest neighbors of a query vector.
+     *
+     * @param query the query vector. It is not modified.
+     * @param k the maximum number of results.
+     * @param includeVectors whether to return a copy of each matching vector.
+     * @return up to k results, most similar first.
+     */
+    public List<SearchResult> search(float[] query, int k, boolean includeVectors) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException("Expected " + dimensions + " dimensions, got " + query.length);
+        }
+        float[] q = VectorMath.normalized(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int level = topLevel; level > 0; level--) {
+                current = greedyClosest(q, 0, current, level);
+            }
+            // Deleted nodes still route the search, so widen it by the number that may be skipped.
+            int ef = Math.max(efSearch, k) + Math.min(deletedCount(), k);
+            PriorityQueue<Candidate> found = searchLevel(q, 0, current, ef, 0);
+            List<Candidate> ordered = new ArrayList<>(found);
+            ordered.sort(MOST_SIMILAR_FIRST);
+            List<SearchResult> results = new ArrayList<>(k);
+            for (Candidate c : ordered) {
+                if (results.size() == k) {
+                    break;
+                }
+                if (!deleted.get(c.node)) {
+                    float[] vector = includeVectors ? Arrays.copyOfRange(vectors, c.node * dimensions, (c.node + 1) * dimensions) : null;
+                    results.add(new SearchResult(new Embedding(ids[c.node], vector, contents[c.node], metadata[c.node]), c.score));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of nodes in the graph, including deleted nodes that have not been reclaimed.
+     */
+    int nodeCount() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every node is either live, and in nodesById, or deleted.
+     */
+    private int deletedCount() {
+        return size - nodesById.size();
+    }
+
+    private void insert(String id, float[] vector, int offset, String content, Map<String, Object> metadata) {
+        int node = allocate();
+        System.arraycopy(vector, offset, vectors, node * dimensions, dimensions);
+        VectorMath.normalizeInPlace(vectors, node * dimensions, dimensions);
+        ids[node] = id;
+        contents[node] = content;
+        this.metadata[node] = metadata;
+        nodesById.put(id, node);
+        link(node);
+    }
+
+    /**
+     * Rebuilds the graph from the live nodes once deleted nodes outnumber them. Each rebuild at least halves the node
+     * count, so its cost is spread over the removals that led to it.
+     */
+    private void compactIfSparse() {
+        int deletedNodes = deletedCount();
+        if (deletedNodes < MIN_DELETED_TO_COMPACT || deletedNodes <= nodesById.size()) {
+            return;
+        }
+        float[] oldVectors = vectors;
+        String[] oldIds = ids;
+        String[] oldContents = contents;
+        Map<String, Object>[] oldMetadata = metadata;
+        BitSet oldDeleted = (BitSet) deleted.clone();
+        int oldSize = size;
+        int capacity = Math.max(16, nodesById.size() * 2);
+        vectors = new float[capacity * dimensions];
+        level0 = new int[capacity * (maxLevel0Neighbors + 1)];
+        upperLevels = new int[capacity][][];
+        ids = new String[capacity];
+        contents = new String[capacity];
+        metadata = newMetadataArray(capacity);
+        nodesById.clear();
+        deleted.clear();
+        size = 0;
+        entryPoint = -1;
+        topLevel = -1;
+        // Reinsert in the original order, so the rebuilt graph does not depend on hash order.
+        for (int node = 0; node < oldSize; node++) {
+            if (!oldDeleted.get(node)) {
+                insert(oldIds[node], oldVectors, node * dimensions, oldContents[node], oldMetadata[node]);
+            }
+        }
+    }
+
+    private int allocate() {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            vectors = Arrays.copyOf(vectors, capacity * dimensions);
+            level0 = Arrays.copyOf(level0, capacity * (maxLevel0Neighbors + 1));
+            upperLevels = Arrays.copyOf(upperLevels, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            contents = Arrays.copyOf(contents, capacity);
+            metadata = Arrays.copyOf(metadata, capacity);
+        }
+        return size++;
+    }
+
+    private static Map<String, Object>[] newMetadataArray(int capacity) {
+        // Generic arrays cannot be created directly, and the array only ever holds Map<String, Object> values.
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<String, Object>[] metadata = (Map<String, Object>[]) new Map[capacity];
+        return metadata;
+    }
+
+    /**
+     * Connects a new node to its nearest neighbors on each of its levels.
+     */
+    private void link(int node) {
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        if (level > 0) {
+            upperLevels[node] = new int[level][m + 1];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            topLevel = level;
+            return;
+        }
+        int offset = node * dimensions;
+        int current = entryPoint;
+        for (int l = topLevel; l > level; l--) {
+            current = greedyClosest(vectors, offset, current, l);
+        }
+        for (int l = Math.min(level, topLevel); l >= 0; l--) {
+            PriorityQueue<Candidate> candidates = searchLevel(vectors, offset, current, efConstruction, l);
+            List<Candidate> nearest = new ArrayList<>(candidates);
+            nearest.sort(MOST_SIMILAR_FIRST);
+            int maxNeighbors = l == 0 ? maxLevel0Neighbors : m;
+            for (int i = 0; i < Math.min(maxNeighbors, nearest.size()); i++) {
+                int neighbor = nearest.get(i).node;
+                addNeighbor(node, neighbor, l);
+                addNeighbor(neighbor, node, l);
+            }
+            current = nearest.getFirst().node;
+        }
+        if (level > topLevel) {
+            entryPoint = node;
+            topLevel = level;
+        }
+    }
+
+    /**
+     * Adds a neighbor to a node. When the node is full, its least similar neighbor is replaced if the new neighbor is
+     * more similar.
+     */
+    private void addNeighbor(int node, int neighbor, int level) {
+        int[] list = level == 0 ? level0 : upperLevels[node][level - 1];
+        int base = level == 0 ? node * (maxLevel0Neighbors + 1) : 0;
+        int capacity = level == 0 ? maxLevel0Neighbors : m;
+        int count = list[base];
+        if (count < capacity) {
+            list[base + 1 + count] = neighbor;
+            list[base] = count + 1;
+            return;
+        }
+        int nodeOffset = node * dimensions;
+        int weakest = -1;
+        float weakestScore = similarity(vectors, nodeOffset, neighbor);
+        for (int i = 0; i < count; i++) {
+            float score = similarity(vectors, nodeOffset, list[base + 1 + i]);
+            if (score < weakestScore) {
+                weakest = i;
+                weakestScore = score;
+            }
+        }
+        if (weakest >= 0) {
+            list[base + 1 + weakest] = neighbor;
+        }
+    }
+
+    private int greedyClosest(float[] query, int queryOffset, int start, int level) {
+        int current = start;
+        float currentScore = similarity(query, queryOffset, current);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] list = neighbors(current, level);
+            int base = level == 0 ? current * (maxLevel0Neighbors + 1) : 0;
+            for (int i = 0; i < list[base]; i++) {
+                int neighbor = list[base + 1 + i];
+                float score = similarity(query, queryOffset, neighbor);
+                if (score > currentScore) {
+                    current = neighbor;
+                    currentScore = score;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Best-first search of one level, returning up to ef of the most similar nodes found.
+     */
+    private PriorityQueue<Candidate> searchLevel(float[] query, int queryOffset, int start, int ef, int level) {
+        BitSet visited = new BitSet(size);
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(MOST_SIMILAR_FIRST);
+        PriorityQueue<Candidate> found = new PriorityQueue<>(LEAST_SIMILAR_FIRST);
+        Candidate first = new Candidate(start, similarity(query, queryOffset, start));
+        visited.set(start);
+        candidates.add(first);
+        found.add(first);
+        while (!candidates.isEmpty()) {
+            Candidate candidate = candidates.poll();
+            if (found.size() >= ef && candidate.score < found.peek().score) {
+                break;
+            }
+            int[] list = neighbors(candidate.node, level);
+            int base = level == 0 ? candidate.node * (maxLevel0Neighbors + 1) : 0;
+            for (int i = 0; i < list[base]; i++) {
+                int neighbor = list[base + 1 + i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float score = similarity(query, queryOffset, neighbor);
+                if (found.size() < ef || score > found.peek().score) {
+                    Candidate next = new Candidate(neighbor, score);
+                    candidates.add(next);
+                    found.add(next);
+                    if (found.size() > ef) {
+                        found.poll();
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private int[] neighbors(int node, int level) {
+        return level == 0 ? level0 : upperLevels[node][level - 1];
+    }
+
+    private float similarity(float[] query, int queryOffset, int node) {
+        return VectorMath.dot(query, queryOffset, vectors, node * dimensions, dimensions);
+    }
+
+    private record Candidate(int node, float score) {}
+}
@@ -0,0 +1,167 @@
+package com.example.hnsw;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.model.Embedding;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.SearchRequest;
+import com.example.vectorstore.SearchResult;
+import com.example.vectorstore.VectorFormat;
+import com.example.vectorstore.WriteStats;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves searches of a hot {@link OracleVectorStore} table from an in-process {@link HnswIndex}.
+ * <p>
+ * Call {@link #load()} to read the table into the index. Embeddings added through this tier are written to the
+ * store, then added to the index. Writes made to the table by other clients are not seen until the next load.
+ * <p>
+ * Searches are answered locally when the index is loaded and returns maxResults matches above minScore. Otherwise,
+ * the search falls back to the database. Only cosine distance stores are supported, so BINARY stores are rejected.
+ */
+@Slf4j
+public class HnswVectorTier {
+    private final OracleVectorStore vectorStore;
+    @Getter
+    private final HnswIndex index;
+    private volatile boolean loaded;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param vectorStore the store to load from and write to.
+     * @param m the maximum neighbors per node of the index.
+     * @param efConstruction the candidates considered when inserting into the index.
+     * @param efSearch the candidates considered when searching the index.
+     */
+    @Builder
+    public HnswVectorTier(OracleVectorStore vectorStore, Integer m, Integer efConstruction, Integer efSearch) {
+        this.vectorStore = Objects.requireNonNull(vectorStore, "vectorStore");
+        if (vectorStore.getVectorFormat() == VectorFormat.BINARY) {
+            throw new IllegalArgumentException("HnswVectorTier does not support BINARY vector stores");
+        }
+        this.index = HnswIndex.builder()
+                .dimensions(vectorStore.getDimensions())
+                .m(m)
+                .efConstruction(efConstruction)
+                .efSearch(efSearch)
+                .build();
+    }
+
+    /**
+     * Reads every embedding in the table into the index. Until loading completes, searches use the database.
+     */
+    public void load() {
+        long start = System.nanoTime();
+        vectorStore.forEachEmbedding(index::add);
+        loaded = true;
+        log.info("Loaded {} embeddings into the in-process index in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void add(Embedding embedding) {
+        addAll(Collections.singletonList(embedding));
+    }
+
+    /**
+     * Writes embeddings to the vector store, then adds them to the index. Embeddings without an id are given a
+     * random id, so the index and table agree. Metadata is written to the table and kept in the index.
+     *
+     * @param embeddings To add.
+     * @return statistics for the database write.
+     */
+    public WriteStats addAll(List<Embedding> embeddings) {
+        List<Embedding> withIds = new ArrayList<>(embeddings.size());
+        for (Embedding embedding : embeddings) {
+            withIds.add(embedding.id() != null
+                    ? embedding
+                    : new Embedding(UUID.randomUUID().toString(), embedding.vector(), embedding.content(), embedding.metadata()));
+        }
+        WriteStats stats = vectorStore.addAll(withIds);
+        index.addAll(withIds);
+        return stats;
+    }
+
+    /**
+     * Searches the index, falling back to the database when the index is not loaded or cannot fill the request.
+     * Results from the index carry the same metadata as database results, but the index cannot evaluate filters, so
+     * filtered searches always go to the database.
+     *
+     * @param searchRequest the search parameters. The approximate and targetAccuracy settings apply only to
+     *                      database searches.
+     * @return the matches and their similarity scores, most similar first.
+     */
+    public List<SearchResult> search(SearchRequest searchRequest) {
+        if (loaded && searchRequest.getFilters().isEmpty()) {
+            List<SearchResult> results = searchLocal(searchRequest);
+            if (results.size() == searchRequest.getMaxResults()) {
+                hits.incrementAndGet();
+                return results;
+            }
+        }
+        misses.incrementAndGet();
+        return vectorStore.search(searchRequest);
+    }
+
+    /**
+     * Measures the recall of the index against exact database searches.
+     *
+     * @param queries the query vectors.
+     * @param topK the number of results per search.
+     * @return the mean fraction of exact results found by the index, from 0 to 1.
+     */
+    public double measureRecall(List<float[]> queries, int topK) {
+        if (queries.isEmpty()) {
+            return 1.0;
+        }
+        double recall = 0;
+        for (float[] query : queries) {
+            SearchRequest request = SearchRequest.builder()
+                    .vector(query)
+                    .maxResults(topK)
+                    .includeVectors(false)
+                    .build();
+            Set<String> exact = ids(vectorStore.search(request));
+            Set<String> local = ids(searchLocal(request));
+            local.retainAll(exact);
+            recall += exact.isEmpty() ? 1.0 : (double) local.size() / exact.size();
+        }
+        return recall / queries.size();
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    private List<SearchResult> searchLocal(SearchRequest searchRequest) {
+        List<SearchResult> results = index.search(searchRequest.getVector(), searchRequest.getMaxResults(), searchRequest.isIncludeVectors());
+        // Results are most similar first, so drop the tail below the minimum score.
+        int end = results.size();
+        while (end > 0 && results.get(end - 1).score() < searchRequest.getMinScore()) {
+            end--;
+        }
+        return results.subList(0, end);
+    }
+
+    private static Set<String> ids(List<SearchResult> results) {
+        Set<String> ids = new HashSet<>();
+        results.forEach(r -> ids.add(r.embedding().id()));
+        return ids;
+    }
+}
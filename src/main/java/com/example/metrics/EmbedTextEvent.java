@@ -0,0 +1,21 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.EmbedText")
+@Label("Embed Text")
+@Category({"Embedding Flow", "GenAI"})
+@Description("Sends a batch of texts to the GenAI embedding endpoint")
+public class EmbedTextEvent extends jdk.jfr.Event {
+    @Label("Model")
+    public String model;
+
+    @Label("Inputs")
+    public int inputs;
+
+    @Label("Estimated Tokens")
+    public int tokens;
+}
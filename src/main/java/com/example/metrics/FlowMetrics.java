@@ -0,0 +1,51 @@
+package com.example.metrics;
+
+/**
+ * Receives measurements from the document loader, embedding model and vector store.
+ * <p>
+ * Every method has an empty default, so implementations only override what they record. Methods are called on the
+ * thread that made the remote call, concurrently from many threads, and must not block. Use {@link #NOOP} to record
+ * nothing, or {@link MicrometerFlowMetrics} to publish to a Micrometer registry.
+ */
+public interface FlowMetrics {
+    FlowMetrics NOOP = new FlowMetrics() {};
+
+    /**
+     * Called after a page of object names is listed.
+     */
+    default void objectsListed(int objects, long nanos) {}
+
+    /**
+     * Called after an object is downloaded.
+     */
+    default void objectFetched(long bytes, long nanos) {}
+
+    /**
+     * Called after an embedding request returns.
+     *
+     * @param inputs the number of texts in the request.
+     * @param tokens the estimated tokens in the request.
+     */
+    default void embeddingBatch(int inputs, int tokens, long nanos) {}
+
+    /**
+     * Called before a throttled or failed embedding request is retried.
+     *
+     * @param statusCode the HTTP status of the failed attempt, or -1 for a client side timeout.
+     * @param backoffNanos the time waited before the retry.
+     */
+    default void embeddingRetried(int statusCode, long backoffNanos) {}
+
+    /**
+     * Called after a JDBC batch is executed.
+     */
+    default void writeBatch(int rows, long nanos) {}
+
+    /**
+     * Called after a search returns.
+     *
+     * @param results the number of results.
+     * @param cached whether the results came from the search cache.
+     */
+    default void search(int results, boolean cached, long nanos) {}
+}
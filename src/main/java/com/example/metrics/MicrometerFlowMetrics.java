@@ -0,0 +1,121 @@
+package com.example.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes flow measurements to a Micrometer registry. Micrometer is an optional dependency, and must be on the
+ * classpath to use this class.
+ * <p>
+ * Timers publish percentile histograms, so latency percentiles can be aggregated across instances. Rates such as
+ * objects per second are derived from the timer counts by the monitoring system.
+ */
+public class MicrometerFlowMetrics implements FlowMetrics {
+    private final MeterRegistry registry;
+    private final Timer listTimer;
+    private final Counter objectsListed;
+    private final Timer getTimer;
+    private final DistributionSummary bytesFetched;
+    private final Timer embedTimer;
+    private final DistributionSummary embedBatchSize;
+    private final Counter tokensSent;
+    private final Timer batchTimer;
+    private final Counter rowsWritten;
+    private final Timer searchTimer;
+    private final Timer cachedSearchTimer;
+    private final DistributionSummary searchResults;
+
+    public MicrometerFlowMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        listTimer = Timer.builder("objectstorage.list")
+                .description("Object Storage list requests")
+                .publishPercentileHistogram()
+                .register(registry);
+        objectsListed = Counter.builder("objectstorage.list.objects")
+                .description("Object names listed")
+                .register(registry);
+        getTimer = Timer.builder("objectstorage.get")
+                .description("Object Storage get requests")
+                .publishPercentileHistogram()
+                .register(registry);
+        bytesFetched = DistributionSummary.builder("objectstorage.get.size")
+                .description("Size of downloaded objects")
+                .baseUnit("bytes")
+                .register(registry);
+        embedTimer = Timer.builder("genai.embed")
+                .description("GenAI embedding requests")
+                .publishPercentileHistogram()
+                .register(registry);
+        embedBatchSize = DistributionSummary.builder("genai.embed.batch.size")
+                .description("Texts in each embedding request")
+                .publishPercentileHistogram()
+                .register(registry);
+        tokensSent = Counter.builder("genai.embed.tokens")
+                .description("Estimated tokens sent for embedding")
+                .register(registry);
+        batchTimer = Timer.builder("vectorstore.batch")
+                .description("JDBC batch executions")
+                .publishPercentileHistogram()
+                .register(registry);
+        rowsWritten = Counter.builder("vectorstore.rows.written")
+                .description("Rows written to the vector table")
+                .register(registry);
+        searchTimer = Timer.builder("vectorstore.search")
+                .description("Vector searches")
+                .tag("cached", "false")
+                .publishPercentileHistogram()
+                .register(registry);
+        cachedSearchTimer = Timer.builder("vectorstore.search")
+                .description("Vector searches")
+                .tag("cached", "true")
+                .publishPercentileHistogram()
+                .register(registry);
+        searchResults = DistributionSummary.builder("vectorstore.search.results")
+                .description("Results returned by each search")
+                .register(registry);
+    }
+
+    @Override
+    public void objectsListed(int objects, long nanos) {
+        listTimer.record(nanos, TimeUnit.NANOSECONDS);
+        objectsListed.increment(objects);
+    }
+
+    @Override
+    public void objectFetched(long bytes, long nanos) {
+        getTimer.record(nanos, TimeUnit.NANOSECONDS);
+        bytesFetched.record(bytes);
+    }
+
+    @Override
+    public void embeddingBatch(int inputs, int tokens, long nanos) {
+        embedTimer.record(nanos, TimeUnit.NANOSECONDS);
+        embedBatchSize.record(inputs);
+        tokensSent.increment(tokens);
+    }
+
+    @Override
+    public void embeddingRetried(int statusCode, long backoffNanos) {
+        Timer.builder("genai.embed.retries")
+                .description("Backoff before retrying throttled or failed embedding requests")
+                .tag("status", String.valueOf(statusCode))
+                .register(registry)
+                .record(backoffNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void writeBatch(int rows, long nanos) {
+        batchTimer.record(nanos, TimeUnit.NANOSECONDS);
+        rowsWritten.increment(rows);
+    }
+
+    @Override
+    public void search(int results, boolean cached, long nanos) {
+        (cached ? cachedSearchTimer : searchTimer).record(nanos, TimeUnit.NANOSECONDS);
+        searchResults.record(results);
+    }
+}
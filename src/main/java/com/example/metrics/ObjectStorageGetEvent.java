@@ -0,0 +1,23 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.ObjectStorageGet")
+@Label("Object Storage Get")
+@Category({"Embedding Flow", "Object Storage"})
+@Description("Downloads an object")
+public class ObjectStorageGetEvent extends jdk.jfr.Event {
+    @Label("Bucket")
+    public String bucket;
+
+    @Label("Object")
+    public String object;
+
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,21 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.ObjectStorageList")
+@Label("Object Storage List")
+@Category({"Embedding Flow", "Object Storage"})
+@Description("Lists a page of object names")
+public class ObjectStorageListEvent extends jdk.jfr.Event {
+    @Label("Bucket")
+    public String bucket;
+
+    @Label("Prefix")
+    public String prefix;
+
+    @Label("Objects")
+    public int objects;
+}
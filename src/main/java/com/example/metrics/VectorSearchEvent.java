@@ -0,0 +1,27 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.VectorSearch")
+@Label("Vector Search")
+@Category({"Embedding Flow", "Database"})
+@Description("Runs a similarity search, or returns it from the search cache")
+public class VectorSearchEvent extends jdk.jfr.Event {
+    @Label("Table")
+    public String table;
+
+    @Label("Max Results")
+    public int maxResults;
+
+    @Label("Results")
+    public int results;
+
+    @Label("Approximate")
+    public boolean approximate;
+
+    @Label("Cached")
+    public boolean cached;
+}
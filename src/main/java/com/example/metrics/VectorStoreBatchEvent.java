@@ -0,0 +1,22 @@
+package com.example.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.example.VectorStoreBatch")
+@Label("Vector Store Batch")
+@Category({"Embedding Flow", "Database"})
+@Description("Executes a JDBC batch of inserts or merges")
+public class VectorStoreBatchEvent extends jdk.jfr.Event {
+    @Label("Table")
+    public String table;
+
+    @Label("Statement")
+    @Description("INSERT or MERGE")
+    public String statement;
+
+    @Label("Rows")
+    public int rows;
+}
@@ -0,0 +1,54 @@
+package com.example.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+/**
+ * The text of a source document, either held in memory or read on demand.
+ *
+ * @param source the source the text was read from.
+ * @param text the document text, or null if the document is read from its content.
+ * @param content opens the document text, for documents too large to hold in memory. Null if text is set.
+ */
+public record Document(SourceObject source, String text, Content content) {
+    /**
+     * Opens a reader over a document's text.
+     */
+    @FunctionalInterface
+    public interface Content {
+        Reader open() throws IOException;
+    }
+
+    public Document {
+        if ((text == null) == (content == null)) {
+            throw new IllegalArgumentException("A document has either text or content");
+        }
+    }
+
+    public Document(SourceObject source, String text) {
+        this(source, text, null);
+    }
+
+    /**
+     * @return a reader over the document text. The caller closes it.
+     */
+    public Reader reader() throws IOException {
+        return text != null ? new StringReader(text) : content.open();
+    }
+
+    /**
+     * @return the document text, reading it into memory if it is read on demand.
+     */
+    public String readText() throws IOException {
+        if (text != null) {
+            return text;
+        }
+        try (Reader reader = content.open()) {
+            StringWriter writer = new StringWriter();
+            reader.transferTo(writer);
+            return writer.toString();
+        }
+    }
+}
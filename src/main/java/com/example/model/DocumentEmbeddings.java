@@ -0,0 +1,12 @@
+package com.example.model;
+
+import java.util.List;
+
+/**
+ * The embedded chunks of a source document, in chunk order.
+ *
+ * @param source the source the chunks were read from.
+ * @param embeddings the chunk embeddings. The index of each embedding is its chunk ordinal.
+ */
+public record DocumentEmbeddings(SourceObject source, List<Embedding> embeddings) {
+}
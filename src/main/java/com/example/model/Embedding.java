@@ -1,3 +1,32 @@
 package com.example.model;
 
-public record Embedding(float[] vector, String content) {}
+import java.util.Map;
+
+/**
+ * A text chunk and its embedding vector.
+ *
+ * @param id the vector store id, or null if the embedding has not been stored.
+ * @param vector the embedding vector.
+ * @param content the embedded text.
+ * @param metadata values for the vector store's metadata columns, by column name. Never null.
+ */
+public record Embedding(String id, float[] vector, String content, Map<String, Object> metadata) {
+    public Embedding {
+        metadata = metadata == null ? Map.of() : metadata;
+    }
+
+    public Embedding(String id, float[] vector, String content) {
+        this(id, vector, content, Map.of());
+    }
+
+    public Embedding(float[] vector, String content) {
+        this(null, vector, content);
+    }
+
+    /**
+     * @return a copy of this embedding with the given metadata.
+     */
+    public Embedding withMetadata(Map<String, Object> metadata) {
+        return new Embedding(id, vector, content, metadata);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.model;
+
+/**
+ * Identifies a version of a source document.
+ *
+ * @param name the source name, unique within its vector table.
+ * @param etag the entity tag of the version. Changes whenever the content changes.
+ * @param size the size of the source in bytes.
+ */
+public record SourceObject(String name, String etag, long size) {
+}
@@ -0,0 +1,596 @@
+package com.example.pipeline;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import com.example.documentloader.DocumentLoader;
+import com.example.embeddingmodel.EmbeddingModel;
+import com.example.embeddingmodel.OCIEmbeddingModel;
+import com.example.model.Document;
+import com.example.model.DocumentEmbeddings;
+import com.example.model.Embedding;
+import com.example.model.SourceObject;
+import com.example.splitter.StreamingSplitter;
+import com.example.vectorstore.ObjectManifest;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.WorkQueue;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads, splits, embeds and stores documents as concurrent stages connected by bounded queues.
+ * <p>
+ * The read stage splits each document and merges chunks from many documents into full embedding batches.
+ * Embedding workers send those batches to the embedding model, and writer workers merge the resulting embeddings
+ * into full insert batches for the vector store. All stages run on virtual threads, so fetching, embedding and
+ * writing overlap. When a stage falls behind, its input queue fills up and the stage before it blocks, which keeps
+ * memory bounded no matter how many documents are loaded.
+ * <p>
+ * With an {@link ObjectManifest}, every chunk is stored with its source object and chunk ordinal, and each document
+ * replaces its previous chunks in a single transaction. {@link #sync(String, String)} then only fetches and embeds
+ * objects that are new or changed since the last run, and purges objects that were deleted.
+ * <p>
+ * With a {@link WorkQueue}, several nodes share one ingestion. {@link #enqueue(String, String)} queues the objects
+ * once, and each node runs {@link #work(String)}, which leases objects from the queue so that every object is
+ * embedded by exactly one node.
+ */
+@Slf4j
+public class IngestionPipeline {
+    private static final int DEFAULT_EMBED_CONCURRENCY = 16;
+    private static final int DEFAULT_WRITE_CONCURRENCY = 2;
+    private static final int DEFAULT_QUEUE_CAPACITY = 16;
+    private static final int DEFAULT_CLAIM_SIZE = 32;
+    /**
+     * How long a worker waits before claiming again, when every remaining object is leased by another worker.
+     */
+    private static final Duration CLAIM_POLL_INTERVAL = Duration.ofSeconds(5);
+    /**
+     * How long a writer in a distributed run holds a partial write before writing it, so claimed objects complete.
+     */
+    private static final Duration WRITE_LINGER = Duration.ofMillis(500);
+
+    private final DocumentLoader documentLoader;
+    private final StreamingSplitter splitter;
+    private final EmbeddingModel embeddingModel;
+    private final OracleVectorStore vectorStore;
+    /**
+     * Number of embedding batches that may be in flight at once. {@link OCIEmbeddingModel} further limits the
+     * requests in flight to what the service sustains, so this only needs to exceed that limit.
+     */
+    private final int embedConcurrency;
+    /**
+     * Number of workers writing to the vector store at once. Each worker uses its own connection.
+     */
+    private final int writeConcurrency;
+    /**
+     * Number of batches each queue holds before the stage in front of it blocks.
+     */
+    private final int queueCapacity;
+    /**
+     * Number of chunks sent in each embedding request.
+     */
+    private final int embedBatchSize;
+    /**
+     * Number of embeddings written in each call to the vector store. Defaults to the vector store batch size.
+     */
+    private final int writeBatchSize;
+    /**
+     * Records the version of each ingested object. Optional, required for incremental syncs.
+     */
+    private final ObjectManifest manifest;
+    /**
+     * Derives the metadata column values of each document's chunks from its source object. Optional.
+     */
+    private final Function<SourceObject, Map<String, Object>> metadata;
+    /**
+     * Coordinates the nodes of a distributed ingestion. Optional, required for {@link #work(String)}.
+     */
+    private final WorkQueue workQueue;
+    /**
+     * Number of objects each node claims from the work queue at once.
+     */
+    private final int claimSize;
+
+    @Builder
+    public IngestionPipeline(DocumentLoader documentLoader,
+                             StreamingSplitter splitter,
+                             EmbeddingModel embeddingModel,
+                             OracleVectorStore vectorStore,
+                             Integer embedConcurrency,
+                             Integer writeConcurrency,
+                             Integer queueCapacity,
+                             Integer embedBatchSize,
+                             Integer writeBatchSize,
+                             ObjectManifest manifest,
+                             Function<SourceObject, Map<String, Object>> metadata,
+                             WorkQueue workQueue,
+                             Integer claimSize) {
+        this.documentLoader = Objects.requireNonNull(documentLoader, "documentLoader");
+        this.splitter = Objects.requireNonNull(splitter, "splitter");
+        this.embeddingModel = Objects.requireNonNull(embeddingModel, "embeddingModel");
+        this.vectorStore = Objects.requireNonNull(vectorStore, "vectorStore");
+        this.embedConcurrency = positive(embedConcurrency, DEFAULT_EMBED_CONCURRENCY, "embedConcurrency");
+        this.writeConcurrency = positive(writeConcurrency, DEFAULT_WRITE_CONCURRENCY, "writeConcurrency");
+        this.queueCapacity = positive(queueCapacity, DEFAULT_QUEUE_CAPACITY, "queueCapacity");
+        this.embedBatchSize = positive(embedBatchSize, OCIEmbeddingModel.EMBEDDING_BATCH_SIZE, "embedBatchSize");
+        this.writeBatchSize = positive(writeBatchSize, vectorStore.getBatchSize(), "writeBatchSize");
+        this.manifest = manifest;
+        this.metadata = metadata;
+        this.workQueue = workQueue;
+        this.claimSize = positive(claimSize, DEFAULT_CLAIM_SIZE, "claimSize");
+    }
+
+    /**
+     * Ingests all documents in a bucket with the given prefix, blocking until every embedding has been written.
+     *
+     * @param bucket the bucket, or directory for a local document loader, to load documents from.
+     * @param prefix the object prefix to load documents from.
+     * @return a summary of the run.
+     * @throws RuntimeException if any stage fails. The remaining stages are cancelled.
+     */
+    public IngestionResult run(String bucket, String prefix) {
+        return new Run(false, false).execute(bucket, prefix);
+    }
+
+    /**
+     * Incrementally ingests a bucket with the given prefix, using the manifest to skip objects whose ETag has not
+     * changed since they were last ingested. The chunks of changed objects are replaced, and objects that no longer
+     * exist are removed from the vector store once every other object has been written.
+     *
+     * @param bucket the bucket, or directory for a local document loader, to load documents from.
+     * @param prefix the object prefix to load documents from.
+     * @return a summary of the run.
+     * @throws IllegalStateException if the pipeline has no manifest.
+     * @throws RuntimeException if any stage fails. Deleted objects are not purged after a failure.
+     */
+    public IngestionResult sync(String bucket, String prefix) {
+        if (manifest == null) {
+            throw new IllegalStateException("An object manifest is required to sync");
+        }
+        return new Run(true, false).execute(bucket, prefix);
+    }
+
+    /**
+     * Adds the objects in a bucket with the given prefix to the work queue, for nodes running {@link #work(String)}.
+     * Objects that are unchanged since they were last ingested are not queued again. Run this on one node before
+     * starting the workers.
+     *
+     * @param bucket the bucket, or directory for a local document loader, to queue documents from.
+     * @param prefix the object prefix to queue documents from.
+     * @return the number of objects queued.
+     * @throws IllegalStateException if the pipeline has no work queue.
+     */
+    public long enqueue(String bucket, String prefix) {
+        if (workQueue == null) {
+            throw new IllegalStateException("A work queue is required to enqueue objects");
+        }
+        try (Stream<SourceObject> objects = documentLoader.listObjects(bucket, prefix)) {
+            return workQueue.enqueue(bucket, objects);
+        }
+    }
+
+    /**
+     * Ingests queued objects from a bucket as one of any number of nodes, until no objects remain. Objects are
+     * leased claimSize at a time, so each object is fetched and embedded by one node, and its leases are renewed
+     * while it is in flight. Each object replaces its previous chunks in the same transaction as the write, and is
+     * marked done once that commits, so an object that is ingested again after a crash is never duplicated.
+     * <p>
+     * When every remaining object is leased by another node, this waits for those leases to complete or expire.
+     *
+     * @param bucket the bucket, or directory for a local document loader, to load documents from.
+     * @return a summary of this node's share of the work.
+     * @throws IllegalStateException if the pipeline has no work queue.
+     * @throws RuntimeException if any stage fails. This node's unfinished leases expire and are claimed by others.
+     */
+    public IngestionResult work(String bucket) {
+        if (workQueue == null) {
+            throw new IllegalStateException("A work queue is required to work on queued objects");
+        }
+        return new Run(false, true).execute(bucket, null);
+    }
+
+    /**
+     * The manifest and vector store key of an object, unique across buckets.
+     */
+    private static String sourceName(String bucket, String objectName) {
+        return bucket + "/" + objectName;
+    }
+
+    private static String objectName(String bucket, String sourceName) {
+        return sourceName.substring(bucket.length() + 1);
+    }
+
+    private static int positive(Integer value, int defaultValue, String name) {
+        int result = Objects.requireNonNullElse(value, defaultValue);
+        if (result < 1) {
+            throw new IllegalArgumentException(name + " must be positive: " + result);
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * A chunk of a document, in the document's chunk order.
+     */
+    private record Chunk(PendingDocument document, int ordinal, String text) {}
+
+    /**
+     * Collects the embeddings of a document's chunks, which may be embedded by several workers in any order. The
+     * document is complete once it is sealed with its chunk count and every chunk has been embedded. Whichever of
+     * the two happens last returns true.
+     */
+    private static class PendingDocument {
+        private final SourceObject source;
+        private final Map<String, Object> metadata;
+        private Embedding[] embeddings = new Embedding[16];
+        private int received;
+        private int chunkCount = -1;
+
+        PendingDocument(SourceObject source, Map<String, Object> metadata) {
+            this.source = source;
+            this.metadata = metadata;
+        }
+
+        synchronized boolean add(int ordinal, Embedding embedding) {
+            if (ordinal >= embeddings.length) {
+                embeddings = Arrays.copyOf(embeddings, Math.max(ordinal + 1, embeddings.length * 2));
+            }
+            embeddings[ordinal] = metadata == null ? embedding : embedding.withMetadata(metadata);
+            received++;
+            return received == chunkCount;
+        }
+
+        synchronized boolean seal(int chunkCount) {
+            this.chunkCount = chunkCount;
+            return received == chunkCount;
+        }
+
+        synchronized DocumentEmbeddings complete() {
+            return new DocumentEmbeddings(source, List.of(Arrays.copyOf(embeddings, chunkCount)));
+        }
+    }
+
+    /**
+     * The state of a single ingestion run.
+     */
+    private class Run {
+        // End of stream markers, compared by identity. Each consumer of a queue receives one marker.
+        private final List<Chunk> noMoreChunks = new ArrayList<>(0);
+        private final List<DocumentEmbeddings> noMoreDocuments = new ArrayList<>(0);
+
+        private final boolean incremental;
+        // Distributed runs read objects claimed from the work queue, and hold their leases until they are written.
+        private final boolean leased;
+        private final Set<String> leases = ConcurrentHashMap.newKeySet();
+        private List<Chunk> chunkBatch = new ArrayList<>(embedBatchSize);
+        private String bucket;
+        private final BlockingQueue<List<Chunk>> chunkBatches = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<List<DocumentEmbeddings>> documentBatches = new ArrayBlockingQueue<>(queueCapacity);
+        private final AtomicInteger activeEmbedders = new AtomicInteger(embedConcurrency);
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+        private final AtomicLong documents = new AtomicLong();
+        private final AtomicLong chunks = new AtomicLong();
+        private final AtomicLong written = new AtomicLong();
+        private final AtomicLong unchanged = new AtomicLong();
+        // Manifest entries under the prefix, and the sources listed in this run. Only used by incremental runs.
+        private Map<String, SourceObject> known = Map.of();
+        private final Set<String> listed = new HashSet<>();
+        private ExecutorService executor;
+
+        Run(boolean incremental, boolean leased) {
+            this.incremental = incremental;
+            this.leased = leased;
+        }
+
+        IngestionResult execute(String bucket, String prefix) {
+            long start = System.nanoTime();
+            this.bucket = bucket;
+            if (incremental) {
+                known = manifest.entries(sourceName(bucket, Objects.requireNonNullElse(prefix, "")));
+            }
+            CountDownLatch finished = new CountDownLatch(1);
+            Thread heartbeat = leased ? Thread.ofVirtual().name("lease-heartbeat").start(() -> renewLeases(finished)) : null;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                this.executor = executor;
+                executor.execute(stage("read", () -> {
+                    if (leased) {
+                        readClaims();
+                    } else {
+                        read(prefix);
+                    }
+                }));
+                for (int i = 0; i < embedConcurrency; i++) {
+                    executor.execute(stage("embed", this::embed));
+                }
+                for (int i = 0; i < writeConcurrency; i++) {
+                    executor.execute(stage("write", this::write));
+                }
+            } finally {
+                finished.countDown();
+            }
+            if (failure.get() != null) {
+                throw new RuntimeException("Ingestion failed for bucket " + bucket + " and prefix " + prefix, failure.get());
+            }
+            long deleted = 0;
+            if (incremental) {
+                // Only purge after a complete listing, so a failed run never deletes objects it didn't reach.
+                Set<String> removed = new HashSet<>(known.keySet());
+                removed.removeAll(listed);
+                vectorStore.deleteDocuments(removed, manifest);
+                deleted = removed.size();
+            }
+            return new IngestionResult(documents.get(), chunks.get(), written.get(), unchanged.get(), deleted,
+                    Duration.ofNanos(System.nanoTime() - start));
+        }
+
+        private void read(String prefix) throws InterruptedException {
+            try (Stream<SourceObject> objects = documentLoader.listObjects(bucket, prefix);
+                 Stream<Document> stream = documentLoader.fetchDocuments(bucket, objects.filter(this::changed))) {
+                Iterator<Document> it = stream.iterator();
+                while (it.hasNext()) {
+                    split(it.next());
+                }
+            }
+            endChunks();
+        }
+
+        /**
+         * Claims objects from the work queue and reads them, until every queued object is done. Objects that fail
+         * to load are released, so another attempt can be made.
+         */
+        private void readClaims() throws InterruptedException {
+            while (true) {
+                List<SourceObject> claimed = workQueue.claim(bucket, claimSize);
+                if (claimed.isEmpty()) {
+                    // Let the chunks already read complete, as their objects count as remaining until written.
+                    flushChunks();
+                    if (workQueue.remaining(bucket) == 0) {
+                        break;
+                    }
+                    // While this node's own objects are in flight, check again as soon as they may have been written.
+                    Thread.sleep(leases.isEmpty() ? CLAIM_POLL_INTERVAL : WRITE_LINGER);
+                    continue;
+                }
+                Set<String> unread = new HashSet<>();
+                for (SourceObject object : claimed) {
+                    unread.add(object.name());
+                    leases.add(object.name());
+                }
+                try (Stream<Document> stream = documentLoader.fetchDocuments(bucket, claimed.stream())) {
+                    Iterator<Document> it = stream.iterator();
+                    while (it.hasNext()) {
+                        Document document = it.next();
+                        if (split(document)) {
+                            unread.remove(document.source().name());
+                        }
+                    }
+                }
+                if (!unread.isEmpty()) {
+                    leases.removeAll(unread);
+                    workQueue.release(bucket, unread);
+                }
+            }
+            endChunks();
+        }
+
+        /**
+         * Splits a document, adding its chunks to the current embedding batch. Documents read on demand are split as
+         * they are read. A document that fails to read is logged and skipped, and is never written, as it is never
+         * sealed.
+         *
+         * @return false if the document failed to read.
+         */
+        private boolean split(Document document) throws InterruptedException {
+            SourceObject source = document.source();
+            SourceObject named = new SourceObject(sourceName(bucket, source.name()), source.etag(), source.size());
+            PendingDocument pending = new PendingDocument(named, metadata == null ? null : metadata.apply(named));
+            int ordinal = 0;
+            try (Stream<CharSequence> documentChunks = document.text() != null
+                    ? splitter.chunks(document.text())
+                    : splitter.chunks(document.reader())) {
+                Iterator<CharSequence> it = documentChunks.iterator();
+                while (it.hasNext()) {
+                    chunkBatch.add(new Chunk(pending, ordinal++, it.next().toString()));
+                    if (chunkBatch.size() == embedBatchSize) {
+                        flushChunks();
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to read {}", named.name(), e);
+                return false;
+            }
+            documents.incrementAndGet();
+            if (pending.seal(ordinal)) {
+                documentBatches.put(List.of(pending.complete()));
+            }
+            return true;
+        }
+
+        private void flushChunks() throws InterruptedException {
+            if (!chunkBatch.isEmpty()) {
+                chunkBatches.put(chunkBatch);
+                chunkBatch = new ArrayList<>(embedBatchSize);
+            }
+        }
+
+        private void endChunks() throws InterruptedException {
+            flushChunks();
+            for (int i = 0; i < embedConcurrency; i++) {
+                chunkBatches.put(noMoreChunks);
+            }
+        }
+
+        /**
+         * Records an object as listed, and returns true if it is new or its ETag differs from the manifest.
+         */
+        private boolean changed(SourceObject object) {
+            if (!incremental) {
+                return true;
+            }
+            String name = sourceName(bucket, object.name());
+            listed.add(name);
+            SourceObject previous = known.get(name);
+            if (previous != null && object.etag() != null && object.etag().equals(previous.etag())) {
+                unchanged.incrementAndGet();
+                return false;
+            }
+            return true;
+        }
+
+        private void embed() throws InterruptedException {
+            List<Chunk> batch;
+            while ((batch = chunkBatches.take()) != noMoreChunks) {
+                chunks.addAndGet(batch.size());
+                List<Embedding> embeddings = embeddingModel.embedAll(batch.stream().map(Chunk::text).toList());
+                List<DocumentEmbeddings> completed = new ArrayList<>();
+                for (int i = 0; i < batch.size(); i++) {
+                    Chunk chunk = batch.get(i);
+                    if (chunk.document().add(chunk.ordinal(), embeddings.get(i))) {
+                        completed.add(chunk.document().complete());
+                    }
+                }
+                if (!completed.isEmpty()) {
+                    documentBatches.put(completed);
+                }
+            }
+            // The last embedder to finish signals the writers.
+            if (activeEmbedders.decrementAndGet() == 0) {
+                for (int i = 0; i < writeConcurrency; i++) {
+                    documentBatches.put(noMoreDocuments);
+                }
+            }
+        }
+
+        /**
+         * Merges completed documents into writes of at least writeBatchSize embeddings. A document is never split
+         * across writes, so its chunks are replaced atomically.
+         */
+        private void write() throws InterruptedException {
+            List<DocumentEmbeddings> pending = new ArrayList<>();
+            int pendingRows = 0;
+            List<DocumentEmbeddings> batch;
+            while ((batch = nextDocuments()) != noMoreDocuments) {
+                if (batch == null) {
+                    // No documents arrived for a while. Write what is pending, so its leases can complete.
+                    if (!pending.isEmpty()) {
+                        flush(pending);
+                        pending = new ArrayList<>();
+                        pendingRows = 0;
+                    }
+                    continue;
+                }
+                for (DocumentEmbeddings document : batch) {
+                    pending.add(document);
+                    pendingRows += document.embeddings().size();
+                }
+                if (pendingRows >= writeBatchSize) {
+                    flush(pending);
+                    pending = new ArrayList<>();
+                    pendingRows = 0;
+                }
+            }
+            if (!pending.isEmpty()) {
+                flush(pending);
+            }
+        }
+
+        /**
+         * Takes the next completed documents. Distributed runs give up after the write linger and return null, as
+         * their reader waits for every claimed object to be written before it finishes.
+         */
+        private List<DocumentEmbeddings> nextDocuments() throws InterruptedException {
+            return leased ? documentBatches.poll(WRITE_LINGER.toMillis(), TimeUnit.MILLISECONDS) : documentBatches.take();
+        }
+
+        private void flush(List<DocumentEmbeddings> documents) {
+            if (leased) {
+                // Replacing makes a retried object idempotent, and it is only marked done once its chunks commit.
+                written.addAndGet(vectorStore.replaceDocuments(documents, manifest).rows());
+                List<String> objectNames = documents.stream()
+                        .map(d -> objectName(bucket, d.source().name()))
+                        .toList();
+                workQueue.complete(bucket, objectNames);
+                objectNames.forEach(leases::remove);
+            } else if (manifest != null) {
+                written.addAndGet(vectorStore.replaceDocuments(documents, manifest).rows());
+            } else {
+                List<Embedding> embeddings = documents.stream()
+                        .flatMap(d -> d.embeddings().stream())
+                        .toList();
+                if (!embeddings.isEmpty()) {
+                    vectorStore.addAll(embeddings);
+                    written.addAndGet(embeddings.size());
+                }
+            }
+        }
+
+        /**
+         * Renews the leases of the objects in flight every third of the lease duration, until the run is finished. A
+         * failed renewal is retried at the next interval, before the leases expire.
+         */
+        private void renewLeases(CountDownLatch finished) {
+            long interval = workQueue.getLeaseDuration().toMillis() / 3;
+            while (true) {
+                try {
+                    if (finished.await(interval, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                try {
+                    List<String> held = List.copyOf(leases);
+                    long renewed = workQueue.renew(bucket, held);
+                    if (renewed < held.size()) {
+                        log.debug("Renewed {} of {} leases in {}", renewed, held.size(), bucket);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Failed to renew leases in {}", bucket, e);
+                }
+            }
+        }
+
+        /**
+         * Wraps a stage so that the first failure is recorded and cancels every other stage.
+         */
+        private Runnable stage(String name, Stage stage) {
+            return () -> {
+                try {
+                    stage.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Throwable t) {
+                    if (failure.compareAndSet(null, t)) {
+                        log.error("Ingestion stage {} failed, cancelling remaining stages", name, t);
+                        executor.shutdownNow();
+                    }
+                }
+            };
+        }
+    }
+}
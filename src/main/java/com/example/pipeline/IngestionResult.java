@@ -0,0 +1,15 @@
+package com.example.pipeline;
+
+import java.time.Duration;
+
+/**
+ * Summary of a completed ingestion run.
+ *
+ * @param documents the number of documents loaded.
+ * @param chunks the number of chunks produced by the splitter.
+ * @param embeddings the number of embeddings written to the vector store.
+ * @param unchanged the number of objects skipped by an incremental sync because they had not changed.
+ * @param deleted the number of objects purged by an incremental sync because they no longer exist.
+ * @param elapsed the wall time of the run.
+ */
+public record IngestionResult(long documents, long chunks, long embeddings, long unchanged, long deleted, Duration elapsed) {}
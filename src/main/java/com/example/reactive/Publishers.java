@@ -0,0 +1,80 @@
+package com.example.reactive;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * Adapts {@link Flow.Publisher}s, such as those of the Oracle JDBC reactive extensions, to CompletableFutures.
+ * Every item is requested up front, so only use these with publishers of bounded size.
+ */
+public final class Publishers {
+    private Publishers() {}
+
+    /**
+     * @return a future of every item published, completed when the publisher completes.
+     */
+    public static <T> CompletableFuture<List<T>> toList(Flow.Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        List<T> items = new ArrayList<>();
+        publisher.subscribe(new Flow.Subscriber<T>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(T item) {
+                items.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(items);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return a future of the first item published, or null if the publisher completes without one.
+     */
+    public static <T> CompletableFuture<T> first(Flow.Publisher<T> publisher) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        publisher.subscribe(new Flow.Subscriber<T>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(T item) {
+                future.complete(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                future.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                future.complete(null);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * @return a future completed when the publisher completes, ignoring its items.
+     */
+    public static CompletableFuture<Void> whenDone(Flow.Publisher<?> publisher) {
+        return toList(publisher).thenApply(items -> null);
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.reactive;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Publishes the items of a blocking {@link Stream}, read on a virtual thread as subscribers request them.
+ * <p>
+ * Each subscriber gets a new stream from the source, which is closed when the stream is exhausted, fails, or the
+ * subscription is cancelled. At most one item is read ahead of demand, so a slow subscriber holds back the stream,
+ * and any bounded buffering behind it.
+ */
+public class StreamPublisher<T> implements Flow.Publisher<T> {
+    private final Supplier<Stream<T>> source;
+
+    public StreamPublisher(Supplier<Stream<T>> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        StreamSubscription subscription = new StreamSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        Thread.ofVirtual().name("stream-publisher").start(subscription::run);
+    }
+
+    private class StreamSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super T> subscriber;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition demanded = lock.newCondition();
+        private long demand;
+        private boolean cancelled;
+        private IllegalArgumentException invalidRequest;
+
+        StreamSubscription(Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            lock.lock();
+            try {
+                if (n <= 0) {
+                    invalidRequest = new IllegalArgumentException("Requested items must be positive: " + n);
+                } else {
+                    // Demand saturates at Long.MAX_VALUE, which means unbounded.
+                    demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+                }
+                demanded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            lock.lock();
+            try {
+                cancelled = true;
+                demanded.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void run() {
+            try (Stream<T> stream = source.get()) {
+                Iterator<T> it = stream.iterator();
+                while (true) {
+                    if (!it.hasNext()) {
+                        if (!isCancelled()) {
+                            subscriber.onComplete();
+                        }
+                        return;
+                    }
+                    if (!awaitDemand()) {
+                        return;
+                    }
+                    subscriber.onNext(it.next());
+                }
+            } catch (Throwable t) {
+                if (!isCancelled()) {
+                    subscriber.onError(t);
+                }
+            }
+        }
+
+        /**
+         * Blocks until an item is requested, and takes it from the demand.
+         *
+         * @return false if the subscription was cancelled.
+         */
+        private boolean awaitDemand() throws InterruptedException {
+            lock.lock();
+            try {
+                while (demand == 0 && !cancelled && invalidRequest == null) {
+                    demanded.await();
+                }
+                if (invalidRequest != null && !cancelled) {
+                    cancelled = true;
+                    subscriber.onError(invalidRequest);
+                }
+                if (cancelled) {
+                    return false;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    demand--;
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean isCancelled() {
+            lock.lock();
+            try {
+                return cancelled;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.splitter;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import lombok.Builder;
+
+/**
+ * Packs lines into chunks of up to maxTokens estimated tokens.
+ * <p>
+ * Consecutive short lines are joined with newlines until the next line would exceed the budget. Lines longer than
+ * the budget are broken at the last whitespace that fits, or mid-word if there is none. When overlapTokens is set,
+ * each chunk begins with the trailing text of the previous chunk, so context spanning a chunk boundary is kept.
+ */
+public class ChunkingSplitter implements StreamingSplitter {
+    /**
+     * OCI GenAI embedding models accept a maximum of 512 tokens per input.
+     */
+    public static final int DEFAULT_MAX_TOKENS = 512;
+
+    private final int maxTokens;
+    private final int overlapTokens;
+    private final TokenEstimator tokenEstimator;
+    private final LineSplitter lineSplitter = new LineSplitter();
+
+    @Builder
+    public ChunkingSplitter(Integer maxTokens, Integer overlapTokens, TokenEstimator tokenEstimator) {
+        this.maxTokens = Objects.requireNonNullElse(maxTokens, DEFAULT_MAX_TOKENS);
+        this.overlapTokens = Objects.requireNonNullElse(overlapTokens, 0);
+        this.tokenEstimator = Objects.requireNonNullElse(tokenEstimator, TokenEstimator.DEFAULT);
+        if (this.maxTokens < 1) {
+            throw new IllegalArgumentException("maxTokens must be positive: " + this.maxTokens);
+        }
+        if (this.overlapTokens < 0 || this.overlapTokens * 2 > this.maxTokens) {
+            throw new IllegalArgumentException("overlapTokens must be between 0 and half of maxTokens: " + this.overlapTokens);
+        }
+    }
+
+    @Override
+    public Stream<CharSequence> chunks(CharSequence text) {
+        return pack(lineSplitter.chunks(text).map(line -> new LineFragment(line, true)));
+    }
+
+    /**
+     * Reads the text in bounded blocks, so a long line is never held whole.
+     */
+    @Override
+    public Stream<CharSequence> chunks(Reader reader) {
+        return pack(lineSplitter.fragments(reader));
+    }
+
+    private Stream<CharSequence> pack(Stream<LineFragment> fragments) {
+        return StreamSupport.stream(new PackingSpliterator(fragments.iterator()), false)
+                .onClose(fragments::close);
+    }
+
+    /**
+     * Returns the length of the longest prefix of text, from an offset, that fits within the token budget.
+     * <p>
+     * The search gallops from a small prefix, doubling it until it no longer fits, then bisects. It never estimates
+     * more than twice the prefix that fits, so breaking a long line costs time in proportion to the line.
+     */
+    private int prefixWithin(CharSequence text, int offset, int tokens) {
+        // Estimate views of the text, rather than copies of each prefix.
+        CharSequence view = text instanceof CharBuffer ? text : CharBuffer.wrap(text);
+        int available = text.length() - offset;
+        int low = 0;
+        int high = Math.min(available, 64);
+        while (high < available && tokenEstimator.estimate(view.subSequence(offset, offset + high)) <= tokens) {
+            low = high;
+            high = Math.min(available, high * 2);
+        }
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenEstimator.estimate(view.subSequence(offset, offset + mid)) <= tokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Lazily reads lines until a chunk is full, then emits it.
+     */
+    private class PackingSpliterator extends Spliterators.AbstractSpliterator<CharSequence> {
+        private final Iterator<LineFragment> lines;
+        private final Deque<CharSequence> pieces = new ArrayDeque<>();
+        private final StringBuilder chunk = new StringBuilder();
+        // The start of a line that has not ended yet and still fits within the budget.
+        private final StringBuilder partialLine = new StringBuilder();
+        private int chunkTokens;
+        // Whether the chunk holds any text beyond the overlap carried from the previous chunk.
+        private boolean hasNewText;
+
+        PackingSpliterator(Iterator<LineFragment> lines) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.lines = lines;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CharSequence> action) {
+            while (!pieces.isEmpty() || lines.hasNext()) {
+                if (pieces.isEmpty()) {
+                    add(lines.next());
+                    continue;
+                }
+                CharSequence piece = pieces.poll();
+                int pieceTokens = tokenEstimator.estimate(piece);
+                // Count one token for the newline joining the piece to the chunk.
+                if (chunk.isEmpty() || chunkTokens + 1 + pieceTokens <= maxTokens) {
+                    append(piece, pieceTokens);
+                    continue;
+                }
+                pieces.push(piece);
+                if (!hasNewText) {
+                    // Only overlap is buffered and the piece does not fit after it, so drop the overlap.
+                    chunk.setLength(0);
+                    chunkTokens = 0;
+                    continue;
+                }
+                action.accept(emit());
+                return true;
+            }
+            if (hasNewText) {
+                action.accept(emit());
+                chunk.setLength(0);
+                hasNewText = false;
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Adds a fragment of a line. Text is kept in partialLine until the line ends or no longer fits.
+         */
+        private void add(LineFragment fragment) {
+            CharSequence text = fragment.text();
+            if (!partialLine.isEmpty()) {
+                partialLine.append(text);
+                text = partialLine;
+            }
+            int queued = breakLine(text, fragment.endsLine());
+            if (text == partialLine) {
+                partialLine.delete(0, queued);
+            } else if (queued < text.length()) {
+                partialLine.append(text, queued, text.length());
+            }
+        }
+
+        /**
+         * Queues a line, breaking it into pieces that each fit within the token budget.
+         *
+         * @param complete whether the line ends with this text. If not, the text that fits is left unqueued, as
+         * more of the line may follow it.
+         * @return the length of the text queued.
+         */
+        private int breakLine(CharSequence line, boolean complete) {
+            int offset = 0;
+            int length = line.length();
+            while (offset < length) {
+                int fits = prefixWithin(line, offset, maxTokens);
+                if (offset + fits == length) {
+                    if (complete) {
+                        pieces.add(line.subSequence(offset, length));
+                        return length;
+                    }
+                    return offset;
+                }
+                int end = offset + Math.max(1, fits);
+                // Prefer to break at whitespace, as long as the piece stays at least half full.
+                for (int i = end; i > offset + (end - offset) / 2; i--) {
+                    if (Character.isWhitespace(line.charAt(i - 1))) {
+                        end = i;
+                        break;
+                    }
+                }
+                pieces.add(line.subSequence(offset, end));
+                offset = end;
+            }
+            return offset;
+        }
+
+        private void append(CharSequence piece, int pieceTokens) {
+            if (!chunk.isEmpty()) {
+                chunk.append('\n');
+                chunkTokens++;
+            }
+            chunk.append(piece);
+            chunkTokens += pieceTokens;
+            hasNewText = true;
+        }
+
+        /**
+         * Returns the buffered chunk, and starts the next chunk with its overlapping tail.
+         */
+        private String emit() {
+            String result = chunk.toString();
+            chunk.setLength(0);
+            chunkTokens = 0;
+            hasNewText = false;
+            if (overlapTokens > 0) {
+                CharSequence reversed = new StringBuilder(result).reverse();
+                int start = result.length() - prefixWithin(reversed, 0, overlapTokens);
+                // Start the overlap at a word boundary.
+                while (start < result.length() && start > 0 && !Character.isWhitespace(result.charAt(start - 1))) {
+                    start++;
+                }
+                String tail = result.substring(start).strip();
+                if (!tail.isEmpty()) {
+                    chunk.append(tail);
+                    chunkTokens = tokenEstimator.estimate(tail);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.splitter;
+
+/**
+ * A run of text within a line. Long lines read from a Reader arrive as several fragments, so no line has to be
+ * buffered whole.
+ *
+ * @param text the text, without line terminators.
+ * @param endsLine whether the line ends after this fragment.
+ */
+record LineFragment(CharSequence text, boolean endsLine) {
+}
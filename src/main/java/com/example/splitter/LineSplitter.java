@@ -1,11 +1,169 @@
 package com.example.splitter;
 
-import java.util.List;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class LineSplitter implements Splitter<String> {
+/**
+ * Splits text into one chunk per line. Lines end with \n, \r or \r\n, and empty lines are skipped.
+ */
+public class LineSplitter implements StreamingSplitter {
 
     @Override
-    public List<String> split(String s) {
-        return List.of(s.split("\\r?\\n|\\r"));
+    public Stream<CharSequence> chunks(CharSequence text) {
+        return StreamSupport.stream(new LineSpliterator(text), false);
+    }
+
+    @Override
+    public Stream<CharSequence> chunks(Reader reader) {
+        BufferedReader lines = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        return lines.lines()
+                .filter(line -> !line.isEmpty())
+                .map(CharSequence.class::cast)
+                .onClose(() -> {
+                    try {
+                        lines.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads text in blocks of at most BLOCK_SIZE chars, emitting the lines in each block as fragments. A line that
+     * spans blocks is emitted as one fragment per block, so memory stays bounded however long a line is. Empty
+     * lines are skipped.
+     */
+    Stream<LineFragment> fragments(Reader reader) {
+        return StreamSupport.stream(new FragmentSpliterator(reader), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    static final int BLOCK_SIZE = 8192;
+
+    private static class FragmentSpliterator extends Spliterators.AbstractSpliterator<LineFragment> {
+        private final Reader reader;
+        private char[] block = new char[0];
+        private int position;
+        private int limit;
+        private boolean endOfInput;
+        // Whether the current line has text in an earlier fragment, and whether a \r ended the last block.
+        private boolean lineHasText;
+        private boolean skipLineFeed;
+
+        FragmentSpliterator(Reader reader) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super LineFragment> action) {
+            while (true) {
+                if (position == limit) {
+                    if (endOfInput || !fill()) {
+                        if (lineHasText) {
+                            lineHasText = false;
+                            action.accept(new LineFragment("", true));
+                            return true;
+                        }
+                        return false;
+                    }
+                }
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (block[position] == '\n') {
+                        position++;
+                        continue;
+                    }
+                }
+                int start = position;
+                while (position < limit && block[position] != '\n' && block[position] != '\r') {
+                    position++;
+                }
+                if (position == limit) {
+                    if (position > start) {
+                        lineHasText = true;
+                        action.accept(new LineFragment(CharBuffer.wrap(block, start, position - start), false));
+                        return true;
+                    }
+                    continue;
+                }
+                int end = position;
+                skipLineFeed = block[position++] == '\r';
+                if (end > start || lineHasText) {
+                    lineHasText = false;
+                    action.accept(new LineFragment(CharBuffer.wrap(block, start, end - start), true));
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * Reads the next block. Fragments are views over their block, so each block is a new array.
+         *
+         * @return false at the end of the input.
+         */
+        private boolean fill() {
+            try {
+                block = new char[BLOCK_SIZE];
+                int read;
+                do {
+                    read = reader.read(block);
+                } while (read == 0);
+                position = 0;
+                limit = Math.max(read, 0);
+                endOfInput = read < 0;
+                return !endOfInput;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Scans for line terminators without copying, emitting each line as a view over the original text.
+     */
+    private static class LineSpliterator extends Spliterators.AbstractSpliterator<CharSequence> {
+        private final CharSequence text;
+        private int position;
+
+        LineSpliterator(CharSequence text) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.text = text;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CharSequence> action) {
+            int length = text.length();
+            while (position < length) {
+                int start = position;
+                int end = start;
+                while (end < length && text.charAt(end) != '\n' && text.charAt(end) != '\r') {
+                    end++;
+                }
+                position = end;
+                if (position < length && text.charAt(position++) == '\r' && position < length && text.charAt(position) == '\n') {
+                    position++;
+                }
+                if (end > start) {
+                    action.accept(CharBuffer.wrap(text, start, end));
+                    return true;
+                }
+            }
+            return false;
+        }
     }
 }
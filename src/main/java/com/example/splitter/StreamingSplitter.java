@@ -0,0 +1,35 @@
+package com.example.splitter;
+
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A splitter that reads its input incrementally and emits chunks lazily, so a document never has to be held in
+ * memory more than once. Chunks are {@link CharSequence} views over the input where possible; call
+ * {@link CharSequence#toString()} on a chunk only when its text is needed.
+ */
+public interface StreamingSplitter extends Splitter<String> {
+    /**
+     * Lazily splits in-memory text into chunks.
+     *
+     * @param text the text to split.
+     * @return a stream of chunks.
+     */
+    Stream<CharSequence> chunks(CharSequence text);
+
+    /**
+     * Lazily splits text read from a Reader into chunks. The reader is read as the stream is consumed, and is
+     * closed when the stream is closed.
+     *
+     * @param reader the text to split.
+     * @return a stream of chunks.
+     */
+    Stream<CharSequence> chunks(Reader reader);
+
+    @Override
+    default List<String> split(String s) {
+        return chunks(CharBuffer.wrap(s)).map(CharSequence::toString).toList();
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.splitter;
+
+/**
+ * Estimates the number of model tokens in a piece of text.
+ */
+@FunctionalInterface
+public interface TokenEstimator {
+    /**
+     * English text averages about four characters per token for the Cohere embedding models.
+     */
+    TokenEstimator DEFAULT = charsPerToken(4);
+
+    int estimate(CharSequence text);
+
+    /**
+     * Creates an estimator that assumes a fixed number of characters per token, rounding up.
+     *
+     * @param charsPerToken the average number of characters in a token.
+     * @return the estimator.
+     */
+    static TokenEstimator charsPerToken(double charsPerToken) {
+        if (charsPerToken <= 0) {
+            throw new IllegalArgumentException("charsPerToken must be positive: " + charsPerToken);
+        }
+        return text -> (int) Math.ceil(text.length() / charsPerToken);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.vectormath;
+
+/**
+ * Vector math kernels, implemented with the JDK Vector API or with scalar loops.
+ */
+interface Kernels {
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    /**
+     * Multiplies each element of src by factor, writing to dst. src and dst may be the same array.
+     */
+    void scale(float[] src, int srcOffset, float[] dst, int dstOffset, int length, float factor);
+
+    void narrow(double[] src, float[] dst, int length);
+
+    void widen(float[] src, double[] dst, int length);
+}
@@ -0,0 +1,36 @@
+package com.example.vectormath;
+
+/**
+ * Plain loop kernels, used when the jdk.incubator.vector module is not available.
+ */
+class ScalarKernels implements Kernels {
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0f;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void scale(float[] src, int srcOffset, float[] dst, int dstOffset, int length, float factor) {
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = src[srcOffset + i] * factor;
+        }
+    }
+
+    @Override
+    public void narrow(double[] src, float[] dst, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[i] = (float) src[i];
+        }
+    }
+
+    @Override
+    public void widen(float[] src, double[] dst, int length) {
+        for (int i = 0; i < length; i++) {
+            dst[i] = src[i];
+        }
+    }
+}
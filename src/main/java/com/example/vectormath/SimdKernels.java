@@ -0,0 +1,79 @@
+package com.example.vectormath;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernels using the JDK Vector API, which compiles to the widest SIMD instructions of the CPU.
+ * Only loaded when the jdk.incubator.vector module is available.
+ */
+class SimdKernels implements Kernels {
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> DOUBLE_SPECIES = DoubleVector.SPECIES_PREFERRED;
+    /**
+     * Floats have half the width of doubles, so a full double vector converts to a float vector of half the shape.
+     */
+    private static final VectorSpecies<Float> NARROW_SPECIES =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(DOUBLE_SPECIES.vectorBitSize() / 2));
+
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            sum = va.fma(vb, sum);
+        }
+        float result = sum.reduceLanes(VectorOperators.ADD);
+        // Scalar tail for lengths that are not a multiple of the lane count.
+        for (; i < length; i++) {
+            result += a[aOffset + i] * b[bOffset + i];
+        }
+        return result;
+    }
+
+    @Override
+    public void scale(float[] src, int srcOffset, float[] dst, int dstOffset, int length, float factor) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, src, srcOffset + i).mul(factor).intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++) {
+            dst[dstOffset + i] = src[srcOffset + i] * factor;
+        }
+    }
+
+    @Override
+    public void narrow(double[] src, float[] dst, int length) {
+        int i = 0;
+        int bound = DOUBLE_SPECIES.loopBound(length);
+        for (; i < bound; i += DOUBLE_SPECIES.length()) {
+            FloatVector narrowed = (FloatVector) DoubleVector.fromArray(DOUBLE_SPECIES, src, i)
+                    .convertShape(VectorOperators.D2F, NARROW_SPECIES, 0);
+            narrowed.intoArray(dst, i);
+        }
+        for (; i < length; i++) {
+            dst[i] = (float) src[i];
+        }
+    }
+
+    @Override
+    public void widen(float[] src, double[] dst, int length) {
+        int i = 0;
+        int bound = NARROW_SPECIES.loopBound(length);
+        for (; i < bound; i += NARROW_SPECIES.length()) {
+            DoubleVector widened = (DoubleVector) FloatVector.fromArray(NARROW_SPECIES, src, i)
+                    .convertShape(VectorOperators.F2D, DOUBLE_SPECIES, 0);
+            widened.intoArray(dst, i);
+        }
+        for (; i < length; i++) {
+            dst[i] = src[i];
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.vectormath;
+
+import java.util.List;
+
+/**
+ * Vector math for embeddings.
+ * <p>
+ * Uses the JDK Vector API when the application is started with {@code --add-modules jdk.incubator.vector}, and
+ * falls back to scalar loops otherwise. Set the system property {@code vectormath.scalar=true} to force the scalar
+ * kernels.
+ * <p>
+ * Methods only write to the array documented as their output. Methods taking a destination array write to it and
+ * return it, so callers can reuse one buffer across many vectors.
+ */
+public final class VectorMath {
+    private static final Kernels KERNELS = simdAvailable() ? new SimdKernels() : new ScalarKernels();
+
+    private VectorMath() {}
+
+    /**
+     * @return true if the Vector API kernels are in use.
+     */
+    public static boolean isSimd() {
+        return KERNELS instanceof SimdKernels;
+    }
+
+    /**
+     * Computes the dot product of two vectors. For unit vectors, this is their cosine similarity.
+     */
+    public static float dot(float[] a, float[] b) {
+        checkLengths(a.length, b.length);
+        return KERNELS.dot(a, 0, b, 0, a.length);
+    }
+
+    /**
+     * Computes the dot product of two vectors stored at offsets in larger arrays.
+     */
+    public static float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        return KERNELS.dot(a, aOffset, b, bOffset, length);
+    }
+
+    /**
+     * @return the Euclidean length of a vector.
+     */
+    public static float magnitude(float[] v) {
+        return magnitude(v, 0, v.length);
+    }
+
+    public static float magnitude(float[] v, int offset, int length) {
+        return (float) Math.sqrt(KERNELS.dot(v, offset, v, offset, length));
+    }
+
+    /**
+     * Scales a vector to unit length in place. Zero vectors are left unchanged.
+     *
+     * @return v.
+     */
+    public static float[] normalizeInPlace(float[] v) {
+        normalizeInPlace(v, 0, v.length);
+        return v;
+    }
+
+    /**
+     * Scales a vector stored at an offset in a larger array to unit length in place.
+     */
+    public static void normalizeInPlace(float[] v, int offset, int length) {
+        normalize(v, offset, v, offset, length);
+    }
+
+    /**
+     * Writes the unit vector of src to dst, leaving src unchanged.
+     *
+     * @return dst.
+     */
+    public static float[] normalize(float[] src, float[] dst) {
+        checkLengths(src.length, dst.length);
+        normalize(src, 0, dst, 0, src.length);
+        return dst;
+    }
+
+    /**
+     * @return a new unit vector with the direction of v. v is unchanged.
+     */
+    public static float[] normalized(float[] v) {
+        return normalize(v, new float[v.length]);
+    }
+
+    /**
+     * Narrows double values to floats.
+     *
+     * @return dst.
+     */
+    public static float[] toFloats(double[] src, float[] dst) {
+        checkLengths(src.length, dst.length);
+        KERNELS.narrow(src, dst, src.length);
+        return dst;
+    }
+
+    /**
+     * Widens float values to doubles.
+     *
+     * @return dst.
+     */
+    public static double[] toDoubles(float[] src, double[] dst) {
+        checkLengths(src.length, dst.length);
+        KERNELS.widen(src, dst, src.length);
+        return dst;
+    }
+
+    /**
+     * Unboxes a list of floats, such as an embedding returned by the OCI SDK.
+     *
+     * @return dst.
+     */
+    public static float[] toFloats(List<Float> src, float[] dst) {
+        checkLengths(src.size(), dst.length);
+        int i = 0;
+        for (Float f : src) {
+            dst[i++] = f;
+        }
+        return dst;
+    }
+
+    private static void normalize(float[] src, int srcOffset, float[] dst, int dstOffset, int length) {
+        float magnitude = magnitude(src, srcOffset, length);
+        float factor = magnitude > 0 ? 1f / magnitude : 1f;
+        KERNELS.scale(src, srcOffset, dst, dstOffset, length, factor);
+    }
+
+    private static void checkLengths(int a, int b) {
+        if (a != b) {
+            throw new IllegalArgumentException("Vector lengths differ: " + a + " and " + b);
+        }
+    }
+
+    private static boolean simdAvailable() {
+        return !Boolean.getBoolean("vectormath.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+}
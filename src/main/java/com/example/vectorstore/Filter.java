@@ -0,0 +1,77 @@
+package com.example.vectorstore;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * A search predicate on a metadata column, applied in the database before rows are ranked by distance.
+ * <p>
+ * Values are always bound as parameters. The column must be a metadata column of the vector store, or
+ * source_object, and is checked when the search runs.
+ *
+ * @param column the column to compare.
+ * @param operator the comparison.
+ * @param values the value to compare with, or the list of values for {@link Operator#IN}.
+ */
+public record Filter(String column, Operator operator, List<Object> values) {
+    public enum Operator {
+        EQ("="), NE("<>"), LT("<"), LTE("<="), GT(">"), GTE(">="), IN("in");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    public Filter {
+        Objects.requireNonNull(column, "column");
+        Objects.requireNonNull(operator, "operator");
+        column = column.toLowerCase(Locale.ROOT);
+        values = List.copyOf(values);
+        if (operator == Operator.IN ? values.isEmpty() : values.size() != 1) {
+            throw new IllegalArgumentException(operator + " filter on " + column + " has " + values.size() + " values");
+        }
+    }
+
+    public static Filter eq(String column, Object value) {
+        return new Filter(column, Operator.EQ, List.of(value));
+    }
+
+    public static Filter ne(String column, Object value) {
+        return new Filter(column, Operator.NE, List.of(value));
+    }
+
+    public static Filter lt(String column, Object value) {
+        return new Filter(column, Operator.LT, List.of(value));
+    }
+
+    public static Filter lte(String column, Object value) {
+        return new Filter(column, Operator.LTE, List.of(value));
+    }
+
+    public static Filter gt(String column, Object value) {
+        return new Filter(column, Operator.GT, List.of(value));
+    }
+
+    public static Filter gte(String column, Object value) {
+        return new Filter(column, Operator.GTE, List.of(value));
+    }
+
+    public static Filter in(String column, Collection<?> values) {
+        return new Filter(column, Operator.IN, List.copyOf(values));
+    }
+
+    /**
+     * @return the predicate, with a bind parameter for each value.
+     */
+    String toSql() {
+        if (operator == Operator.IN) {
+            return column + " in (" + String.join(", ", Collections.nCopies(values.size(), "?")) + ")";
+        }
+        return column + " " + operator.sql + " ?";
+    }
+}
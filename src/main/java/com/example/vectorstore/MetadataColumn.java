@@ -0,0 +1,45 @@
+package com.example.vectorstore;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * A typed metadata column of the vector table. Metadata values are stored with each embedding, returned with search
+ * results, and can be filtered on in searches.
+ *
+ * @param name the column name, a simple SQL identifier. Stored in lower case.
+ * @param type the column type.
+ */
+public record MetadataColumn(String name, MetadataType type) {
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z][A-Za-z0-9_]{0,127}");
+    /**
+     * Columns of the vector table and search query that metadata can't shadow.
+     */
+    private static final Set<String> RESERVED = Set.of("id", "content", "embedding", "source_object", "chunk_ordinal", "score");
+
+    public MetadataColumn {
+        Objects.requireNonNull(type, "type");
+        // Column names are written into DDL and queries, so only plain identifiers are accepted.
+        if (name == null || !IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Metadata column names must be simple SQL identifiers: " + name);
+        }
+        name = name.toLowerCase(Locale.ROOT);
+        if (RESERVED.contains(name)) {
+            throw new IllegalArgumentException("Metadata column name is reserved: " + name);
+        }
+    }
+
+    public static MetadataColumn varchar(String name) {
+        return new MetadataColumn(name, MetadataType.VARCHAR);
+    }
+
+    public static MetadataColumn number(String name) {
+        return new MetadataColumn(name, MetadataType.NUMBER);
+    }
+
+    public static MetadataColumn timestamp(String name) {
+        return new MetadataColumn(name, MetadataType.TIMESTAMP);
+    }
+}
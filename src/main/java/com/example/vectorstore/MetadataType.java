@@ -0,0 +1,83 @@
+package com.example.vectorstore;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * The SQL type of a metadata column, and how Java values are bound to and read from it.
+ */
+public enum MetadataType {
+    /**
+     * Strings up to 256 characters. Other values are bound as their string form.
+     */
+    VARCHAR("varchar2(256)", Types.VARCHAR),
+    /**
+     * Any {@link Number}. Read as {@link BigDecimal}.
+     */
+    NUMBER("number", Types.NUMERIC),
+    /**
+     * An {@link Instant}, {@link OffsetDateTime}, {@link ZonedDateTime}, {@link LocalDateTime} or {@link Date}. Read
+     * as {@link Instant}.
+     */
+    TIMESTAMP("timestamp", Types.TIMESTAMP);
+
+    private final String sqlType;
+    private final int jdbcType;
+
+    MetadataType(String sqlType, int jdbcType) {
+        this.sqlType = sqlType;
+        this.jdbcType = jdbcType;
+    }
+
+    String getSqlType() {
+        return sqlType;
+    }
+
+    void bind(PreparedStatement stmt, int index, Object value) throws SQLException {
+        if (value == null) {
+            stmt.setNull(index, jdbcType);
+            return;
+        }
+        switch (this) {
+            case VARCHAR -> stmt.setString(index, value.toString());
+            case NUMBER -> {
+                if (!(value instanceof Number)) {
+                    throw new IllegalArgumentException("Expected a number for a NUMBER column: " + value);
+                }
+                stmt.setObject(index, value);
+            }
+            case TIMESTAMP -> stmt.setTimestamp(index, toTimestamp(value));
+        }
+    }
+
+    Object read(Row row, String column) throws SQLException {
+        return switch (this) {
+            case VARCHAR -> row.get(column, String.class);
+            case NUMBER -> row.get(column, BigDecimal.class);
+            case TIMESTAMP -> {
+                Timestamp timestamp = row.get(column, Timestamp.class);
+                yield timestamp == null ? null : timestamp.toInstant();
+            }
+        };
+    }
+
+    private static Timestamp toTimestamp(Object value) {
+        return switch (value) {
+            case Timestamp t -> t;
+            case Instant i -> Timestamp.from(i);
+            case OffsetDateTime o -> Timestamp.from(o.toInstant());
+            case ZonedDateTime z -> Timestamp.from(z.toInstant());
+            case LocalDateTime l -> Timestamp.valueOf(l);
+            case Date d -> new Timestamp(d.getTime());
+            default -> throw new IllegalArgumentException("Expected a date or time for a TIMESTAMP column: " + value);
+        };
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.DocumentEmbeddings;
+import com.example.model.SourceObject;
+
+/**
+ * Records the version of each source object ingested into a vector table, so unchanged objects can be skipped on
+ * the next run. The manifest is updated in the same transaction as the vector rows of each object, by
+ * {@link OracleVectorStore#replaceDocuments(List, ObjectManifest)} and
+ * {@link OracleVectorStore#deleteDocuments(Collection, ObjectManifest)}.
+ */
+public class ObjectManifest {
+    private final DataSource dataSource;
+    private final String tableName;
+
+    public ObjectManifest(DataSource dataSource, String tableName) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+    }
+
+    public void createTableIfNotExists() {
+        String createTableQuery = String.format("""
+                create table if not exists %s (
+                    source_object varchar2(1024) primary key,
+                    etag varchar2(256),
+                    object_size number(19),
+                    chunks number(10),
+                    updated_at timestamp default systimestamp
+                )
+                """, tableName);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(createTableQuery);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Reads the recorded version of every source whose name starts with a prefix.
+     *
+     * @param prefix the source name prefix.
+     * @return the recorded sources, by name.
+     */
+    public Map<String, SourceObject> entries(String prefix) {
+        // Escape LIKE wildcards, so the prefix is matched literally.
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        String query = String.format("select source_object, etag, object_size from %s where source_object like ? escape '\\'", tableName);
+        Map<String, SourceObject> entries = new HashMap<>();
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, pattern);
+            stmt.setFetchSize(1000);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String name = rs.getString("source_object");
+                    entries.put(name, new SourceObject(name, rs.getString("etag"), rs.getLong("object_size")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Records the version of each document, as part of the caller's transaction.
+     */
+    void upsert(Connection connection, List<DocumentEmbeddings> documents) throws SQLException {
+        String upsert = String.format("""
+                merge into %s target using (values(?, ?, ?, ?)) source (source_object, etag, object_size, chunks)
+                on (target.source_object = source.source_object)
+                when matched then update set target.etag = source.etag, target.object_size = source.object_size,
+                    target.chunks = source.chunks, target.updated_at = systimestamp
+                when not matched then insert (target.source_object, target.etag, target.object_size, target.chunks)
+                    values (source.source_object, source.etag, source.object_size, source.chunks)
+                """, tableName);
+        try (PreparedStatement stmt = connection.prepareStatement(upsert)) {
+            for (DocumentEmbeddings document : documents) {
+                stmt.setString(1, document.source().name());
+                stmt.setString(2, document.source().etag());
+                stmt.setLong(3, document.source().size());
+                stmt.setInt(4, document.embeddings().size());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Removes sources from the manifest, as part of the caller's transaction.
+     */
+    void delete(Connection connection, Collection<String> sources) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(String.format("delete from %s where source_object = ?", tableName))) {
+            for (String source : sources) {
+                stmt.setString(1, source);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+}
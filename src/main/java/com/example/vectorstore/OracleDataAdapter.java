@@ -1,40 +1,109 @@
 package com.example.vectorstore;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 
+import com.example.vectormath.VectorMath;
 import oracle.sql.VECTOR;
 
 class OracleDataAdapter {
-    float[] toFloatArray(double[] vector) {
-        float[] result = new float[vector.length];
-        for (int i = 0; i < vector.length; i++) {
-            result[i] = (float) vector[i];
-        }
-        return result;
+    private final VectorFormat format;
+
+    OracleDataAdapter(VectorFormat format) {
+        this.format = format;
     }
 
+    /**
+     * Normalizes a vector and encodes it in the storage format. The vector is not modified.
+     */
     VECTOR toVECTOR(float[] vector) throws SQLException {
-        vector = normalize(vector);
-        return VECTOR.ofFloat64Values(vector);
+        return toVECTOR(vector, new float[vector.length]);
     }
 
-    private float[] normalize(float[] v) {
-        double squaredSum = 0d;
+    /**
+     * Normalizes a vector into a caller owned buffer and encodes it in the storage format. The vector is not
+     * modified, and the buffer may be reused once this returns.
+     *
+     * @param buffer an array with the same length as the vector.
+     */
+    VECTOR toVECTOR(float[] vector, float[] buffer) throws SQLException {
+        float[] normalized = VectorMath.normalize(vector, buffer);
+        return switch (format) {
+            case FLOAT64 -> VECTOR.ofFloat64Values(normalized);
+            case FLOAT32 -> VECTOR.ofFloat32Values(normalized);
+            case INT8 -> VECTOR.ofInt8Values(toInt8(normalized));
+            case BINARY -> VECTOR.ofBinaryValues(toBinary(normalized));
+        };
+    }
 
-        for (float e : v) {
-            squaredSum += e * e;
+    /**
+     * Reads a vector column in the storage format. FLOAT32 vectors are read without widening, and FLOAT64 vectors
+     * are narrowed by the driver without an intermediate double array.
+     */
+    float[] toFloatArray(ResultSet rs, String column) throws SQLException {
+        return toFloatArray(rs::getObject, column);
+    }
+
+    float[] toFloatArray(Row row, String column) throws SQLException {
+        return switch (format) {
+            case FLOAT64, FLOAT32 -> row.get(column, float[].class);
+            case INT8 -> fromInt8(row.get(column, byte[].class));
+            case BINARY -> fromBinary(row.get(column, byte[].class));
+        };
+    }
+
+    /**
+     * Scales a vector so its largest dimension maps to ±127, and rounds each dimension to a byte. The components of
+     * a high dimensional unit vector are small, so a fixed scale would round most of them to a few values near 0.
+     * Cosine similarity ignores the scale, so it is not stored.
+     */
+    byte[] toInt8(float[] v) {
+        float max = 0;
+        for (float f : v) {
+            max = Math.max(max, Math.abs(f));
+        }
+        byte[] result = new byte[v.length];
+        if (max == 0) {
+            return result;
         }
+        float scale = 127 / max;
+        for (int i = 0; i < v.length; i++) {
+            result[i] = (byte) Math.round(v[i] * scale);
+        }
+        return result;
+    }
 
-        final float magnitude = (float) Math.sqrt(squaredSum);
+    float[] fromInt8(byte[] v) {
+        float[] result = new float[v.length];
+        for (int i = 0; i < v.length; i++) {
+            result[i] = v[i];
+        }
+        return VectorMath.normalizeInPlace(result);
+    }
 
-        if (magnitude > 0) {
-            final float multiplier = 1f / magnitude;
-            final int length = v.length;
-            for (int i = 0; i < length; i++) {
-                v[i] *= multiplier;
+    /**
+     * Packs the sign of each dimension into one bit, most significant bit first. Positive dimensions are set.
+     */
+    byte[] toBinary(float[] v) {
+        byte[] result = new byte[v.length / 8];
+        for (int i = 0; i < v.length; i++) {
+            if (v[i] > 0) {
+                result[i >> 3] |= (byte) (0x80 >>> (i & 7));
             }
         }
+        return result;
+    }
 
-        return v;
+    /**
+     * Unpacks each bit to a dimension of +1 or -1, scaled to a unit vector.
+     */
+    float[] fromBinary(byte[] bits) {
+        int dimensions = bits.length * 8;
+        float magnitude = (float) (1 / Math.sqrt(dimensions));
+        float[] result = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            result[i] = (bits[i >> 3] & (0x80 >>> (i & 7))) != 0 ? magnitude : -magnitude;
+        }
+        return result;
     }
 }
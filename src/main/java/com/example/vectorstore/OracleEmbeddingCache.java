@@ -0,0 +1,104 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.embeddingmodel.EmbeddingCache;
+import oracle.jdbc.OracleType;
+import oracle.sql.VECTOR;
+
+/**
+ * Persistent embedding cache stored in an Oracle Database table, typically next to the vector store table.
+ * Vectors are stored as produced by the embedding model, without normalization.
+ */
+public class OracleEmbeddingCache implements EmbeddingCache {
+    private final DataSource dataSource;
+    private final String tableName;
+
+    public OracleEmbeddingCache(DataSource dataSource, String tableName) {
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+    }
+
+    public void createTableIfNotExists() {
+        // The cache key is a hex encoded SHA-256 hash. A vector with flexible dimensions allows any model to be cached.
+        String createTableQuery = String.format("""
+                create table if not exists %s (
+                    cache_key varchar2(64) primary key,
+                    embedding vector(*,FLOAT32)
+                )
+                """, tableName);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(createTableQuery);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Map<String, float[]> getAll(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, float[]> result = new HashMap<>();
+        List<String> remaining = new ArrayList<>(keys);
+        int groupSize = OracleVectorStore.BATCH_SIZE;
+        String query = String.format("select cache_key, embedding from %s where cache_key in (%s)",
+                tableName, String.join(",", Collections.nCopies(groupSize, "?")));
+        try (Connection connection = dataSource.getConnection(); PreparedStatement stmt = connection.prepareStatement(query)) {
+            // Look up keys in groups of a fixed size, so a single statement is parsed and reused.
+            for (int i = 0; i < remaining.size(); i += groupSize) {
+                List<String> group = remaining.subList(i, Math.min(i + groupSize, remaining.size()));
+                for (int j = 0; j < groupSize; j++) {
+                    // Pad a partial group by repeating its last key.
+                    stmt.setString(j + 1, group.get(Math.min(j, group.size() - 1)));
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        result.put(rs.getString("cache_key"), rs.getObject("embedding", float[].class));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<String, float[]> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        // Concurrent writers may cache the same chunk, so rows with an existing key are skipped.
+        String insert = String.format("""
+                insert /*+ ignore_row_on_dupkey_index(%s(cache_key)) */ into %s (cache_key, embedding) values (?, ?)
+                """, tableName, tableName);
+        try (Connection connection = dataSource.getConnection(); PreparedStatement stmt = connection.prepareStatement(insert)) {
+            int count = 0;
+            for (Map.Entry<String, float[]> entry : entries.entrySet()) {
+                stmt.setString(1, entry.getKey());
+                stmt.setObject(2, VECTOR.ofFloat32Values(entry.getValue()), OracleType.VECTOR.getVendorTypeNumber());
+                stmt.addBatch();
+                if (++count % OracleVectorStore.BATCH_SIZE == 0) {
+                    stmt.executeBatch();
+                }
+            }
+            if (count % OracleVectorStore.BATCH_SIZE != 0) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -5,13 +5,47 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.example.metrics.FlowMetrics;
+import com.example.metrics.VectorSearchEvent;
+import com.example.metrics.VectorStoreBatchEvent;
+import com.example.model.DocumentEmbeddings;
 import com.example.model.Embedding;
+import com.example.reactive.Publishers;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
 import oracle.jdbc.OracleType;
 import oracle.sql.VECTOR;
 
@@ -22,11 +56,20 @@ import oracle.sql.VECTOR;
  *
  * @author  Anders Swanson
  */
-public class OracleVectorStore {
+@Slf4j
+public class OracleVectorStore implements AutoCloseable {
     /**
      * A batch size of 50 to 100 records is recommending for bulk inserts.
      */
-    private static final int BATCH_SIZE = 50;
+    public static final int BATCH_SIZE = 50;
+    private static final int DEFAULT_STATEMENT_CACHE_SIZE = 20;
+    public static final int DEFAULT_FETCH_SIZE = 500;
+    /**
+     * Chunks are a few KB of text, so 32 KB of LOB prefetch returns most content inline with its row.
+     */
+    public static final int DEFAULT_LOB_PREFETCH_SIZE = 32 * 1024;
+    public static final int DEFAULT_ASYNC_CONNECTIONS = 2;
+    private static final Executor VIRTUAL_THREADS = runnable -> Thread.ofVirtual().start(runnable);
 
     /**
      * DataSource connected to Oracle Database 23ai.
@@ -39,41 +82,229 @@ public class OracleVectorStore {
     /**
      * The embedding vector dimension size. This will be fixed for the embedding model used.
      */
+    @Getter
     private final int dimensions;
-    private final OracleDataAdapter dataAdapter = new OracleDataAdapter();
+    /**
+     * The storage format of the embedding column.
+     */
+    @Getter
+    private final VectorFormat vectorFormat;
+    /**
+     * The number of rows sent to the database in each JDBC batch.
+     */
+    @Getter
+    private final int batchSize;
+    /**
+     * The maximum number of connections used in parallel by a single addAll call.
+     */
+    private final int writeConcurrency;
+    /**
+     * When true, every embedding is written with a plain INSERT, even if it has an id. Use this when loading
+     * embeddings that are known to be new. When false, embeddings with an id are upserted.
+     */
+    private final boolean bulkLoad;
+    /**
+     * The number of statements cached on each connection.
+     */
+    private final int statementCacheSize;
+    private final OracleDataAdapter dataAdapter;
+    private final VectorIndexOptions indexOptions;
+    /**
+     * Manages the vector index of the table. Created on first use, as it searches through this store.
+     */
+    private VectorIndexManager indexManager;
+    /**
+     * Optional cache of search results, invalidated by every write. May be null.
+     */
+    private final SearchCache searchCache;
+    /**
+     * Receives the latency of each batch and search.
+     */
+    private final FlowMetrics metrics;
+    /**
+     * Typed metadata columns, stored with each embedding and available to search filters.
+     */
+    @Getter
+    private final List<MetadataColumn> metadataColumns;
+    /**
+     * The metadata column the table is list partitioned on, or null if the table is not partitioned.
+     */
+    private final String partitionColumn;
+    // Metadata column types by name, and the metadata column list and bind parameters for inserts.
+    private final Map<String, MetadataType> metadataTypes;
+    private final String metadataColumnList;
+    private final String metadataParameters;
+    /**
+     * The rows fetched in each round trip by exports and streaming searches. Searches fetch at most maxResults rows.
+     */
+    private final int fetchSize;
+    /**
+     * The bytes of each content LOB returned with its row, so reading content needs no extra round trip.
+     */
+    private final int lobPrefetchSize;
+    /**
+     * Connections shared by async searches, opened on first use.
+     */
+    private final List<CompletableFuture<Connection>> asyncConnections;
+    private final AtomicInteger nextAsyncConnection = new AtomicInteger();
 
     public OracleVectorStore(DataSource dataSource, String tableName, int dimensions) {
+        this(dataSource, tableName, dimensions, null, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    @Builder
+    public OracleVectorStore(DataSource dataSource,
+                             String tableName,
+                             int dimensions,
+                             VectorFormat vectorFormat,
+                             Integer batchSize,
+                             Integer writeConcurrency,
+                             Boolean bulkLoad,
+                             Integer statementCacheSize,
+                             VectorIndexOptions indexOptions,
+                             SearchCache searchCache,
+                             FlowMetrics metrics,
+                             List<MetadataColumn> metadataColumns,
+                             String partitionColumn,
+                             Integer fetchSize,
+                             Integer lobPrefetchSize,
+                             Integer asyncConnections) {
         this.dataSource = dataSource;
         this.tableName = tableName;
         this.dimensions = dimensions;
+        this.vectorFormat = vectorFormat == null ? VectorFormat.FLOAT64 : vectorFormat;
+        if (this.vectorFormat == VectorFormat.BINARY && dimensions % 8 != 0) {
+            throw new IllegalArgumentException("BINARY vectors require a dimension count that is a multiple of 8: " + dimensions);
+        }
+        this.batchSize = Objects.requireNonNullElse(batchSize, BATCH_SIZE);
+        this.writeConcurrency = Objects.requireNonNullElse(writeConcurrency, 1);
+        if (this.batchSize < 1 || this.writeConcurrency < 1) {
+            throw new IllegalArgumentException("batchSize and writeConcurrency must be positive");
+        }
+        this.bulkLoad = Objects.requireNonNullElse(bulkLoad, false);
+        this.statementCacheSize = Objects.requireNonNullElse(statementCacheSize, DEFAULT_STATEMENT_CACHE_SIZE);
+        this.dataAdapter = new OracleDataAdapter(this.vectorFormat);
+        this.indexOptions = indexOptions;
+        this.searchCache = searchCache;
+        this.metrics = Objects.requireNonNullElse(metrics, FlowMetrics.NOOP);
+        this.metadataColumns = metadataColumns == null ? List.of() : List.copyOf(metadataColumns);
+        this.metadataTypes = new LinkedHashMap<>();
+        for (MetadataColumn column : this.metadataColumns) {
+            if (metadataTypes.put(column.name(), column.type()) != null) {
+                throw new IllegalArgumentException("Duplicate metadata column: " + column.name());
+            }
+        }
+        this.partitionColumn = partitionColumn == null ? null : partitionColumn.toLowerCase(Locale.ROOT);
+        if (this.partitionColumn != null && !metadataTypes.containsKey(this.partitionColumn)) {
+            throw new IllegalArgumentException("The partition column must be a metadata column: " + partitionColumn);
+        }
+        StringBuilder columnList = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        for (String name : metadataTypes.keySet()) {
+            columnList.append(", ").append(name);
+            parameters.append(", ?");
+        }
+        this.metadataColumnList = columnList.toString();
+        this.metadataParameters = parameters.toString();
+        this.fetchSize = Objects.requireNonNullElse(fetchSize, DEFAULT_FETCH_SIZE);
+        this.lobPrefetchSize = Objects.requireNonNullElse(lobPrefetchSize, DEFAULT_LOB_PREFETCH_SIZE);
+        if (this.fetchSize < 1 || this.lobPrefetchSize < 0) {
+            throw new IllegalArgumentException("fetchSize must be positive and lobPrefetchSize must not be negative");
+        }
+        int connections = Objects.requireNonNullElse(asyncConnections, DEFAULT_ASYNC_CONNECTIONS);
+        if (connections < 1) {
+            throw new IllegalArgumentException("asyncConnections must be positive: " + connections);
+        }
+        this.asyncConnections = new ArrayList<>(Collections.nCopies(connections, null));
+    }
+
+    /**
+     * @return the manager of the table's vector index.
+     */
+    public synchronized VectorIndexManager getIndexManager() {
+        if (indexManager == null) {
+            indexManager = new VectorIndexManager(this, dataSource, tableName, vectorFormat, dataAdapter, indexOptions);
+        }
+        return indexManager;
     }
 
     public void createTableIfNotExists() {
         // The "vector" type is used for the embedding column, and will store text embeddings.
+        // Automatic list partitioning creates a partition for each new value of the partition column, so searches
+        // filtered on that column only read their own partition.
         String createTableQuery = String.format("""
                 create table if not exists %s (
                     id varchar2(36) default sys_guid() primary key,
                     content clob,
-                    embedding vector(%d,FLOAT64) annotations(Distance 'COSINE', IndexType 'IVF')
-                )
-                """, tableName, dimensions);
-        // An Inverted File (IVF) vector index is used to facilitate more efficient similarity search:
-        // 1. It allows for quick retrieval of vectors that are similar to a given query vector.
-        // 2. The index supports approximate nearest neighbor search with a given accuracy.
-        // 4. The use of cosine distance makes it particularly suitable for tasks like semantic search of text embeddings.
-        String createIndexQuery = String.format("""
-                create vector index if not exists vector_index on %s (embedding)
-                organization neighbor partitions
-                distance COSINE
-                with target accuracy 95
-                parameters (type IVF, neighbor partitions 10)
-                """, tableName);
+                    embedding vector(%d,%s) annotations(Distance '%s', IndexType '%s'),
+                    source_object varchar2(1024),
+                    chunk_ordinal number(10)%s
+                )%s
+                """, tableName, dimensions, vectorFormat, vectorFormat.getDistance(), getIndexManager().getOptions().getType(),
+                metadataColumnDefinitions(), partitionClause());
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();) {
             stmt.execute(createTableQuery);
-            stmt.execute(createIndexQuery);
+            addMissingColumns(conn);
+            // The source index finds the chunks of a document when it is replaced or deleted.
+            stmt.execute(String.format("create index if not exists %s_source_index on %s (source_object)", tableName, tableName));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
+        // A vector index is used to facilitate more efficient similarity search:
+        // 1. It allows for quick retrieval of vectors that are similar to a given query vector.
+        // 2. The index supports approximate nearest neighbor search with a given accuracy.
+        // 3. The use of cosine distance makes it particularly suitable for tasks like semantic search of text embeddings.
+        //    Binary vectors use Hamming distance instead.
+        // By default, an Inverted File (IVF) index is created. See VectorIndexOptions to configure the index.
+        getIndexManager().createIndexIfNotExists();
+    }
+
+    private String metadataColumnDefinitions() {
+        StringBuilder definitions = new StringBuilder();
+        metadataTypes.forEach((name, type) -> definitions.append(",\n    ").append(name).append(' ').append(type.getSqlType()));
+        return definitions.toString();
+    }
+
+    private String partitionClause() {
+        if (partitionColumn == null) {
+            return "";
+        }
+        // A list partitioned table needs one partition up front. Rows with other values get their own partitions.
+        String initialValue = switch (metadataTypes.get(partitionColumn)) {
+            case VARCHAR -> "'-'";
+            case NUMBER -> "-1";
+            case TIMESTAMP -> "timestamp '1970-01-01 00:00:00'";
+        };
+        return String.format("%npartition by list (%s) automatic (partition %s_initial values (%s))",
+                partitionColumn, tableName, initialValue);
+    }
+
+    /**
+     * Adds the provenance and metadata columns to tables created before they existed. Existing tables are not
+     * partitioned.
+     */
+    private void addMissingColumns(Connection conn) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "select lower(column_name) from user_tab_columns where table_name = upper(?)")) {
+            stmt.setString(1, tableName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString(1));
+                }
+            }
+        }
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("source_object", "varchar2(1024)");
+        columns.put("chunk_ordinal", "number(10)");
+        metadataTypes.forEach((name, type) -> columns.put(name, type.getSqlType()));
+        try (Statement stmt = conn.createStatement()) {
+            for (Map.Entry<String, String> column : columns.entrySet()) {
+                if (!existing.contains(column.getKey())) {
+                    stmt.execute(String.format("alter table %s add (%s %s)", tableName, column.getKey(), column.getValue()));
+                }
+            }
+        }
     }
 
     /**
@@ -87,73 +318,857 @@ public class OracleVectorStore {
 
     /**
      * Adds a list of Embeddings to the vector store, in batches.
+     * <p>
+     * Embeddings without an id are given a random id and inserted. Embeddings with an id are upserted, unless the
+     * store is in bulk load mode. Lists larger than one batch are split across up to writeConcurrency connections,
+     * each of which commits its part independently. If one part fails, the other parts may still be committed.
+     *
      * @param embeddings To add.
+     * @return statistics for the write.
      */
-    public void addAll(List<Embedding> embeddings) {
-        // Upsert is used in case of any conflicts.
-        String upsert = String.format("""
-                merge into %s target using (values(?, ?, ?)) source (id, content, embedding) on (target.id = source.id)
-                when matched then update set target.content = source.content, target.embedding = source.embedding
-                when not matched then insert (target.id, target.content, target.embedding) values (source.id, source.content, source.embedding)
-                """, tableName);
-        try (Connection connection = dataSource.getConnection(); PreparedStatement stmt = connection.prepareStatement(upsert)) {
-            for (int i = 0; i < embeddings.size(); i++) {
-                Embedding embedding = embeddings.get(i);
-                // Generate and set a random ID for the embedding.
-                stmt.setString(1, UUID.randomUUID().toString());
-                // Set the embedding text content if it exists.
-                stmt.setString(2, embedding.content() != null ? embedding.content() : "");
-                // When using the VECTOR data type with prepared statements, always use setObject with the OracleType.VECTOR targetSqlType.
-                stmt.setObject(3, dataAdapter.toVECTOR(embedding.vector()), OracleType.VECTOR.getVendorTypeNumber());
+    public WriteStats addAll(List<Embedding> embeddings) {
+        try {
+            return writeAll(embeddings);
+        } finally {
+            // Invalidate after the write commits, so no search can cache results from before it.
+            if (searchCache != null) {
+                searchCache.invalidateAll();
+            }
+        }
+    }
+
+    private WriteStats writeAll(List<Embedding> embeddings) {
+        long start = System.nanoTime();
+        int parts = Math.min(writeConcurrency, (embeddings.size() + batchSize - 1) / batchSize);
+        if (parts <= 1) {
+            return write(embeddings, start);
+        }
+        // Split the embeddings into parts of whole batches, and write each part on its own connection.
+        int batchesPerPart = (embeddings.size() + batchSize * parts - 1) / (batchSize * parts);
+        int partSize = batchesPerPart * batchSize;
+        List<Future<WriteStats>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < embeddings.size(); i += partSize) {
+                List<Embedding> part = embeddings.subList(i, Math.min(i + partSize, embeddings.size()));
+                futures.add(executor.submit(() -> write(part, System.nanoTime())));
+            }
+        }
+        WriteStats stats = WriteStats.EMPTY;
+        for (Future<WriteStats> future : futures) {
+            try {
+                stats = stats.plus(future.get(), System.nanoTime() - start);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : new RuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return stats;
+    }
+
+    /**
+     * Writes embeddings on a single connection, in one transaction.
+     */
+    private WriteStats write(List<Embedding> embeddings, long start) {
+        List<Embedding> inserts = new ArrayList<>(embeddings.size());
+        List<Embedding> upserts = new ArrayList<>();
+        splitWrites(embeddings, inserts, upserts);
+        return inTransaction(connection -> {
+            BatchTimer timer = new BatchTimer();
+            if (!inserts.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(insertSql())) {
+                    executeBatches(stmt, "INSERT", inserts, null, timer);
+                }
+            }
+            if (!upserts.isEmpty()) {
+                try (PreparedStatement stmt = connection.prepareStatement(upsertSql())) {
+                    executeBatches(stmt, "MERGE", upserts, null, timer);
+                }
+            }
+            return new WriteStats(embeddings.size(), timer.batches, timer.totalNanos, timer.maxNanos, System.nanoTime() - start);
+        });
+    }
+
+    private void splitWrites(List<Embedding> embeddings, List<Embedding> inserts, List<Embedding> upserts) {
+        for (Embedding embedding : embeddings) {
+            (bulkLoad || embedding.id() == null ? inserts : upserts).add(embedding);
+        }
+    }
+
+    /**
+     * New embeddings can't conflict with existing rows, so they are inserted without the overhead of a merge.
+     */
+    private String insertSql() {
+        return String.format("""
+                insert into %s (id, content, embedding%s) values (?, ?, ?%s)
+                """, tableName, metadataColumnList, metadataParameters);
+    }
+
+    /**
+     * Upsert is used for embeddings that may already exist.
+     */
+    private String upsertSql() {
+        return String.format("""
+                merge into %s target using (values(?, ?, ?%s)) source (id, content, embedding%s) on (target.id = source.id)
+                when matched then update set target.content = source.content, target.embedding = source.embedding%s
+                when not matched then insert (target.id, target.content, target.embedding%s) values (source.id, source.content, source.embedding%s)
+                """, tableName, metadataParameters, metadataColumnList, mergeUpdates(), metadataColumnList.replace(", ", ", target."),
+                metadataColumnList.replace(", ", ", source."));
+    }
+
+    /**
+     * Adds a list of Embeddings to the vector store without blocking the caller, using the Oracle JDBC reactive
+     * extensions. The embeddings are written on one pooled connection, in one transaction, and the cache is
+     * invalidated when the write completes. Embeddings with an id are upserted, unless the store is in bulk load mode.
+     *
+     * @param embeddings To add.
+     * @return a future of the statistics for the write.
+     */
+    public CompletableFuture<WriteStats> addAllAsync(List<Embedding> embeddings) {
+        long start = System.nanoTime();
+        List<Embedding> inserts = new ArrayList<>(embeddings.size());
+        List<Embedding> upserts = new ArrayList<>();
+        splitWrites(embeddings, inserts, upserts);
+        BatchTimer timer = new BatchTimer();
+        // Borrowing from the pool may block, so it happens on a virtual thread.
+        return CompletableFuture.supplyAsync(this::openConnection, VIRTUAL_THREADS)
+                .thenCompose(connection -> async(() -> {
+                    OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+                    connection.setAutoCommit(false);
+                    CompletableFuture<Void> writes = executeBatchesAsync(connection, insertSql(), "INSERT", inserts, timer)
+                            .thenCompose(v -> executeBatchesAsync(connection, upsertSql(), "MERGE", upserts, timer))
+                            .thenCompose(v -> async(() -> Publishers.whenDone(oracleConnection.commitAsyncOracle())));
+                    // Roll back a failed write before the connection returns to the pool, then release it either way.
+                    return writes
+                            .handle((v, e) -> e)
+                            .thenCompose(e -> e == null
+                                    ? CompletableFuture.<Void>completedFuture(null)
+                                    : async(() -> Publishers.whenDone(oracleConnection.rollbackAsyncOracle()))
+                                            .handle((v, rollbackError) -> {
+                                                throw e instanceof CompletionException ce ? ce : new CompletionException(e);
+                                            }))
+                            .whenComplete((v, e) -> {
+                                try (connection) {
+                                    connection.setAutoCommit(true);
+                                } catch (SQLException closeError) {
+                                    log.warn("Failed to release connection after async write", closeError);
+                                }
+                            });
+                }))
+                .thenApply(v -> new WriteStats(embeddings.size(), timer.batches, timer.totalNanos, timer.maxNanos, System.nanoTime() - start))
+                .whenComplete((stats, e) -> {
+                    if (searchCache != null) {
+                        searchCache.invalidateAll();
+                    }
+                });
+    }
+
+    /**
+     * Binds and executes batches one after another on a single statement, without blocking.
+     */
+    private CompletableFuture<Void> executeBatchesAsync(Connection connection, String sql, String statement, List<Embedding> embeddings, BatchTimer timer) {
+        if (embeddings.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return async(() -> {
+            PreparedStatement stmt = connection.prepareStatement(sql);
+            return executeBatchAsync(stmt, statement, embeddings, 0, new float[dimensions], timer)
+                    .whenComplete((v, e) -> closeQuietly(stmt));
+        });
+    }
+
+    private CompletableFuture<Void> executeBatchAsync(PreparedStatement stmt, String statement, List<Embedding> embeddings, int from, float[] buffer, BatchTimer timer) {
+        int to = Math.min(from + batchSize, embeddings.size());
+        return async(() -> {
+            for (int i = from; i < to; i++) {
+                bindRow(stmt, embeddings.get(i), buffer, null, i);
                 stmt.addBatch();
+            }
+            VectorStoreBatchEvent event = new VectorStoreBatchEvent();
+            event.begin();
+            long batchStart = System.nanoTime();
+            return Publishers.whenDone(stmt.unwrap(OraclePreparedStatement.class).executeBatchAsyncOracle())
+                    .thenCompose(v -> {
+                        long elapsed = System.nanoTime() - batchStart;
+                        timer.record(elapsed);
+                        metrics.writeBatch(to - from, elapsed);
+                        if (event.shouldCommit()) {
+                            event.table = tableName;
+                            event.statement = statement;
+                            event.rows = to - from;
+                            event.commit();
+                        }
+                        return to < embeddings.size()
+                                ? executeBatchAsync(stmt, statement, embeddings, to, buffer, timer)
+                                : CompletableFuture.completedFuture(null);
+                    });
+        });
+    }
+
+    /**
+     * Replaces the chunks of each document, and records the new document versions in a manifest.
+     * <p>
+     * All documents are written in one transaction: the existing rows of each source object are deleted, the new
+     * chunks are inserted with their source object and chunk ordinal, and the manifest is updated. Readers see
+     * either the old or the new chunks of a document, never a mix.
+     *
+     * @param documents the documents to write. A document with no embeddings deletes the chunks of its source.
+     * @param manifest the manifest to update, or null.
+     * @return statistics for the inserts.
+     */
+    public WriteStats replaceDocuments(List<DocumentEmbeddings> documents, ObjectManifest manifest) {
+        long start = System.nanoTime();
+        List<Embedding> embeddings = new ArrayList<>();
+        List<String> sources = new ArrayList<>();
+        List<Integer> ordinals = new ArrayList<>();
+        for (DocumentEmbeddings document : documents) {
+            for (int i = 0; i < document.embeddings().size(); i++) {
+                embeddings.add(document.embeddings().get(i));
+                sources.add(document.source().name());
+                ordinals.add(i);
+            }
+        }
+        String insert = String.format("""
+                insert into %s (id, content, embedding%s, source_object, chunk_ordinal) values (?, ?, ?%s, ?, ?)
+                """, tableName, metadataColumnList, metadataParameters);
+        try {
+            return inTransaction(connection -> {
+                deleteSources(connection, documents.stream().map(d -> d.source().name()).toList());
+                BatchTimer timer = new BatchTimer();
+                if (!embeddings.isEmpty()) {
+                    try (PreparedStatement stmt = connection.prepareStatement(insert)) {
+                        executeBatches(stmt, "INSERT", embeddings, (s, i, parameter) -> {
+                            s.setString(parameter, sources.get(i));
+                            s.setInt(parameter + 1, ordinals.get(i));
+                        }, timer);
+                    }
+                }
+                if (manifest != null) {
+                    manifest.upsert(connection, documents);
+                }
+                return new WriteStats(embeddings.size(), timer.batches, timer.totalNanos, timer.maxNanos, System.nanoTime() - start);
+            });
+        } finally {
+            if (searchCache != null) {
+                searchCache.invalidateAll();
+            }
+        }
+    }
 
-                // If BATCH_SIZE records have been added to the statement, execute the batch.
-                if (i % BATCH_SIZE == BATCH_SIZE - 1) {
-                    stmt.executeBatch();
+    /**
+     * Deletes the chunks of source objects that no longer exist, and removes them from a manifest, in one
+     * transaction.
+     *
+     * @param sources the source object names.
+     * @param manifest the manifest to update, or null.
+     * @return the number of rows deleted from the vector table.
+     */
+    public int deleteDocuments(Collection<String> sources, ObjectManifest manifest) {
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        try {
+            return inTransaction(connection -> {
+                int deleted = deleteSources(connection, sources);
+                if (manifest != null) {
+                    manifest.delete(connection, sources);
                 }
+                return deleted;
+            });
+        } finally {
+            if (searchCache != null) {
+                searchCache.invalidateAll();
             }
-            // if any remaining batches, execute them.
-            if (embeddings.size() % BATCH_SIZE != 0) {
+        }
+    }
+
+    private int deleteSources(Connection connection, Collection<String> sources) throws SQLException {
+        int deleted = 0;
+        try (PreparedStatement stmt = connection.prepareStatement(String.format("delete from %s where source_object = ?", tableName))) {
+            for (String source : sources) {
+                stmt.setString(1, source);
+                stmt.addBatch();
+            }
+            for (int count : stmt.executeBatch()) {
+                deleted += Math.max(count, 0);
+            }
+        }
+        return deleted;
+    }
+
+    @FunctionalInterface
+    private interface Transaction<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * Runs work on one connection in a single transaction, committing if it completes and rolling back if it fails.
+     */
+    private <T> T inTransaction(Transaction<T> transaction) {
+        try (Connection connection = getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = transaction.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Binds columns after the id, content, embedding and metadata columns for the row at an index.
+     */
+    @FunctionalInterface
+    private interface RowBinder {
+        void bind(PreparedStatement stmt, int index, int firstParameter) throws SQLException;
+    }
+
+    private String mergeUpdates() {
+        StringBuilder updates = new StringBuilder();
+        for (String name : metadataTypes.keySet()) {
+            updates.append(", target.").append(name).append(" = source.").append(name);
+        }
+        return updates.toString();
+    }
+
+    private void executeBatches(PreparedStatement stmt, String statement, List<Embedding> embeddings, RowBinder extraColumns, BatchTimer timer) throws SQLException {
+        // Vectors are normalized into one reused buffer, leaving the caller's embeddings unchanged.
+        float[] buffer = new float[dimensions];
+        for (int i = 0; i < embeddings.size(); i++) {
+            bindRow(stmt, embeddings.get(i), buffer, extraColumns, i);
+            stmt.addBatch();
+
+            // If batchSize records have been added to the statement, or this is the last record, execute the batch.
+            if (i % batchSize == batchSize - 1 || i == embeddings.size() - 1) {
+                int rows = i % batchSize + 1;
+                VectorStoreBatchEvent event = new VectorStoreBatchEvent();
+                event.begin();
+                long batchStart = System.nanoTime();
                 stmt.executeBatch();
+                long elapsed = System.nanoTime() - batchStart;
+                timer.record(elapsed);
+                metrics.writeBatch(rows, elapsed);
+                if (event.shouldCommit()) {
+                    event.table = tableName;
+                    event.statement = statement;
+                    event.rows = rows;
+                    event.commit();
+                }
             }
-            stmt.executeBatch();
+        }
+    }
+
+    private void bindRow(PreparedStatement stmt, Embedding embedding, float[] buffer, RowBinder extraColumns, int index) throws SQLException {
+        // Generate and set a random ID for the embedding if it does not have one.
+        stmt.setString(1, embedding.id() != null ? embedding.id() : UUID.randomUUID().toString());
+        // Set the embedding text content if it exists.
+        stmt.setString(2, embedding.content() != null ? embedding.content() : "");
+        // When using the VECTOR data type with prepared statements, always use setObject with the OracleType.VECTOR targetSqlType.
+        stmt.setObject(3, dataAdapter.toVECTOR(embedding.vector(), buffer), OracleType.VECTOR.getVendorTypeNumber());
+        int parameter = 4;
+        for (Map.Entry<String, MetadataType> column : metadataTypes.entrySet()) {
+            column.getValue().bind(stmt, parameter++, embedding.metadata().get(column.getKey()));
+        }
+        if (extraColumns != null) {
+            extraColumns.bind(stmt, index, parameter);
+        }
+    }
+
+    /**
+     * Gets a connection with implicit statement caching enabled, so the insert and search statements are parsed
+     * once per physical connection rather than once per call.
+     */
+    private Connection openConnection() {
+        try {
+            return getConnection();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
     }
 
-    public List<Embedding> search(SearchRequest searchRequest) {
+    private Connection getConnection() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        if (connection.isWrapperFor(OracleConnection.class)) {
+            OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+            if (!oracleConnection.getImplicitCachingEnabled()) {
+                oracleConnection.setStatementCacheSize(statementCacheSize);
+                oracleConnection.setImplicitCachingEnabled(true);
+            }
+        }
+        return connection;
+    }
+
+    private static class BatchTimer {
+        private int batches;
+        private long totalNanos;
+        private long maxNanos;
+
+        void record(long nanos) {
+            batches++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+    }
+
+    /**
+     * Searches for the embeddings most similar to the request vector.
+     *
+     * If the vector store has a search cache, cached results are returned while they are valid.
+     *
+     * @param searchRequest the search parameters.
+     * @return the matches and their similarity scores, most similar first.
+     */
+    public List<SearchResult> search(SearchRequest searchRequest) {
+        VectorSearchEvent event = new VectorSearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        List<SearchResult> results;
+        boolean cached = false;
+        if (searchCache != null) {
+            SearchCache.Key key = searchCache.key(searchRequest);
+            results = searchCache.get(key);
+            cached = results != null;
+            if (!cached) {
+                long generation = searchCache.generation();
+                results = searchCache.put(key, query(searchRequest), generation);
+            }
+        } else {
+            results = query(searchRequest);
+        }
+        recordSearch(event, start, searchRequest, results.size(), cached);
+        return results;
+    }
+
+    private void recordSearch(VectorSearchEvent event, long start, SearchRequest searchRequest, int results, boolean cached) {
+        metrics.search(results, cached, System.nanoTime() - start);
+        if (event.shouldCommit()) {
+            event.table = tableName;
+            event.maxResults = searchRequest.getMaxResults();
+            event.results = results;
+            event.approximate = searchRequest.isApproximate();
+            event.cached = cached;
+            event.commit();
+        }
+    }
+
+    /**
+     * Searches for the embeddings most similar to the request vector without blocking the caller, using the Oracle
+     * JDBC reactive extensions.
+     * <p>
+     * Async searches share asyncConnections connections, taken in turn. Each connection carries many searches at
+     * once, which the database pipelines when pipelining is enabled, so a few threads and connections serve many
+     * concurrent searches. Results are cached like {@link #search(SearchRequest)}.
+     *
+     * @param searchRequest the search parameters.
+     * @return a future of the matches and their similarity scores, most similar first.
+     */
+    public CompletableFuture<List<SearchResult>> searchAsync(SearchRequest searchRequest) {
+        VectorSearchEvent event = new VectorSearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        SearchCache.Key key = searchCache == null ? null : searchCache.key(searchRequest);
+        if (key != null) {
+            List<SearchResult> cached = searchCache.get(key);
+            if (cached != null) {
+                recordSearch(event, start, searchRequest, cached.size(), true);
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        long generation = key == null ? 0 : searchCache.generation();
+        CompletableFuture<Connection> connection = asyncConnection();
+        return connection
+                .thenCompose(c -> queryAsync(c, searchRequest))
+                .whenComplete((results, e) -> {
+                    if (e != null && isConnectionError(e)) {
+                        discardAsyncConnection(connection);
+                    }
+                })
+                .thenApply(results -> {
+                    List<SearchResult> matches = key == null ? results : searchCache.put(key, results, generation);
+                    recordSearch(event, start, searchRequest, matches.size(), false);
+                    return matches;
+                });
+    }
+
+    private CompletableFuture<List<SearchResult>> queryAsync(Connection connection, SearchRequest searchRequest) {
+        return async(() -> {
+            PreparedStatement stmt = prepare(connection, searchQuery(searchRequest));
+            return async(() -> Publishers.first(stmt.unwrap(OraclePreparedStatement.class).executeQueryAsyncOracle()))
+                    .thenCompose(rs -> async(() -> Publishers.toList(rs.publisherOracle(row -> {
+                        try {
+                            return toSearchResult(row::getObject, searchRequest.isIncludeVectors());
+                        } catch (SQLException e) {
+                            throw new RuntimeException(e);
+                        }
+                    }))))
+                    .whenComplete((results, e) -> closeQuietly(stmt));
+        });
+    }
+
+    /**
+     * Takes the next shared async connection, opening it on a virtual thread if needed.
+     */
+    private CompletableFuture<Connection> asyncConnection() {
+        int slot = Math.floorMod(nextAsyncConnection.getAndIncrement(), asyncConnections.size());
+        synchronized (asyncConnections) {
+            CompletableFuture<Connection> connection = asyncConnections.get(slot);
+            if (connection == null || connection.isCompletedExceptionally()) {
+                connection = CompletableFuture.supplyAsync(this::openConnection, VIRTUAL_THREADS);
+                asyncConnections.set(slot, connection);
+            }
+            return connection;
+        }
+    }
+
+    /**
+     * Closes a broken async connection, so the next search on its slot opens a new one.
+     */
+    private void discardAsyncConnection(CompletableFuture<Connection> connection) {
+        synchronized (asyncConnections) {
+            asyncConnections.replaceAll(c -> c == connection ? null : c);
+        }
+        connection.thenAccept(OracleVectorStore::closeQuietly);
+    }
+
+    private static boolean isConnectionError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLRecoverableException || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the connections shared by async searches to the pool. Searches still running on them fail.
+     */
+    @Override
+    public void close() {
+        synchronized (asyncConnections) {
+            for (int i = 0; i < asyncConnections.size(); i++) {
+                CompletableFuture<Connection> connection = asyncConnections.set(i, null);
+                if (connection != null) {
+                    connection.thenAccept(OracleVectorStore::closeQuietly);
+                }
+            }
+        }
+    }
+
+    private List<SearchResult> query(SearchRequest searchRequest) {
+        try (Stream<SearchResult> results = searchStream(searchRequest)) {
+            return results.collect(Collectors.toCollection(ArrayList::new));
+        }
+    }
+
+    /**
+     * Searches for the embeddings most similar to the request vector, streaming results from an open cursor instead
+     * of reading them into a list. Use this for large maxResults, such as candidate sets for re-ranking.
+     * <p>
+     * The search cache is not used, and the stream holds a pooled connection until it is closed or fully consumed.
+     * Close it with try-with-resources.
+     *
+     * @param searchRequest the search parameters.
+     * @return the matches and their similarity scores, most similar first.
+     */
+    public Stream<SearchResult> searchStream(SearchRequest searchRequest) {
+        return openCursor(searchQuery(searchRequest), rs -> toSearchResult(rs::getObject, searchRequest.isIncludeVectors()));
+    }
+
+    /**
+     * A query, the rows to fetch in each round trip, and the binding of its parameters.
+     */
+    private record Query(String sql, int rows, StatementBinder binder) {}
+
+    private Query searchQuery(SearchRequest searchRequest) {
         // This query is designed to:
-        // 1. Calculate a similarity score for each row based on the cosine distance between the embedding column and a given vector using the "vector_distance" function.
-        // 2. Order the rows by this similarity score in descending order.
+        // 1. Order the rows by the cosine (or Hamming, for binary vectors) distance between the embedding column and a given vector using the "vector_distance" function.
+        //    Ordering by vector_distance directly allows an approximate search to use the vector index.
+        // 2. Return only the top rows, with a similarity score calculated from the same distance.
         // 3. Filter out rows with a similarity score below a specified threshold.
-        // 4. Return only the top rows that meet the criteria.
+        // Metadata filters are applied before ranking, so only matching rows (and partitions) are compared.
+        List<MetadataType> filterTypes = new ArrayList<>();
+        String whereClause = whereClause(searchRequest.getFilters(), filterTypes);
         String searchQuery = String.format("""
                 select * from (
-                select id, content, embedding, (1 - vector_distance(embedding, ?, COSINE)) as score
+                select id, content%s%s, %s as score
                 from %s
-                order by score desc
+                %s
+                order by vector_distance(embedding, ?, %s)
+                %s
                 )
                 where score >= ?
-                fetch first %d rows only
-                """, tableName, searchRequest.getMaxResults());
-        List<Embedding> matches = new ArrayList<>();
-        try (Connection connection = dataSource.getConnection(); PreparedStatement stmt = connection.prepareStatement(searchQuery)) {
+                order by score desc
+                """,
+                searchRequest.isIncludeVectors() ? ", embedding" : "",
+                metadataColumnList,
+                vectorFormat.similarity("embedding", dimensions),
+                tableName,
+                whereClause,
+                vectorFormat.getDistance(),
+                fetchClause(searchRequest));
+        // One extra row lets the driver see the end of the cursor in the same round trip.
+        int rows = (int) Math.min(fetchSize, searchRequest.getMaxResults() + 1L);
+        return new Query(searchQuery, rows, stmt -> {
             VECTOR searchVector = dataAdapter.toVECTOR(searchRequest.getVector());
             // When using the VECTOR data type with prepared statements, always use setObject with the OracleType.VECTOR targetSqlType.
             stmt.setObject(1, searchVector, OracleType.VECTOR.getVendorTypeNumber());
-            stmt.setObject(2, searchRequest.getMinScore(), OracleType.NUMBER.getVendorTypeNumber());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    double[] vector = rs.getObject("embedding", double[].class);
-                    String content = rs.getObject("content", String.class);
-                    Embedding embedding = new Embedding(dataAdapter.toFloatArray(vector), content);
-                    matches.add(embedding);
+            int parameter = bindFilters(stmt, 2, searchRequest.getFilters(), filterTypes);
+            stmt.setObject(parameter++, searchVector, OracleType.VECTOR.getVendorTypeNumber());
+            stmt.setObject(parameter, searchRequest.getMinScore(), OracleType.NUMBER.getVendorTypeNumber());
+        });
+    }
+
+    private SearchResult toSearchResult(Row row, boolean includeVectors) throws SQLException {
+        // The vector is only read if it was selected.
+        float[] vector = includeVectors ? dataAdapter.toFloatArray(row, "embedding") : null;
+        Embedding embedding = new Embedding(row.get("id", String.class), vector, row.get("content", String.class), readMetadata(row));
+        return new SearchResult(embedding, row.get("score", Double.class));
+    }
+
+    /**
+     * Builds the where clause for search filters, checking each filter column against the table's columns.
+     *
+     * @param types receives the type of each filter's column, for binding its values.
+     */
+    private String whereClause(List<Filter> filters, List<MetadataType> types) {
+        if (filters.isEmpty()) {
+            return "";
+        }
+        List<String> predicates = new ArrayList<>(filters.size());
+        for (Filter filter : filters) {
+            MetadataType type = filter.column().equals("source_object") ? MetadataType.VARCHAR : metadataTypes.get(filter.column());
+            if (type == null) {
+                List<String> columns = new ArrayList<>();
+                columns.add("source_object");
+                columns.addAll(metadataTypes.keySet());
+                throw new IllegalArgumentException("Unknown filter column " + filter.column() + ", expected one of " + columns);
+            }
+            types.add(type);
+            predicates.add(filter.toSql());
+        }
+        return "where " + String.join(" and ", predicates);
+    }
+
+    /**
+     * Binds the values of each filter, in order.
+     *
+     * @return the index of the next parameter.
+     */
+    private static int bindFilters(PreparedStatement stmt, int parameter, List<Filter> filters, List<MetadataType> types) throws SQLException {
+        for (int i = 0; i < filters.size(); i++) {
+            for (Object value : filters.get(i).values()) {
+                types.get(i).bind(stmt, parameter++, value);
+            }
+        }
+        return parameter;
+    }
+
+    private Map<String, Object> readMetadata(Row row) throws SQLException {
+        if (metadataTypes.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        for (Map.Entry<String, MetadataType> column : metadataTypes.entrySet()) {
+            metadata.put(column.getKey(), column.getValue().read(row, column.getKey()));
+        }
+        return metadata;
+    }
+
+    /**
+     * Reads every embedding in the table, for example to load an in-process index.
+     *
+     * @param consumer called with each embedding, in no particular order.
+     */
+    public void forEachEmbedding(Consumer<Embedding> consumer) {
+        try (Stream<Embedding> embeddings = streamEmbeddings()) {
+            embeddings.forEach(consumer);
+        }
+    }
+
+    /**
+     * Streams every embedding in the table from an open cursor, for example to export vectors or rebuild an index
+     * elsewhere. Memory use is constant, and rows are fetched fetchSize at a time.
+     * <p>
+     * The stream holds a pooled connection until it is closed or fully consumed. Close it with try-with-resources.
+     *
+     * @return the embeddings with their metadata, in no particular order.
+     */
+    public Stream<Embedding> streamEmbeddings() {
+        return streamEmbeddings(List.of());
+    }
+
+    /**
+     * Streams the embeddings that match every filter from an open cursor.
+     *
+     * @param filters predicates on metadata columns.
+     * @return the matching embeddings with their metadata, in no particular order.
+     * @see #streamEmbeddings()
+     */
+    public Stream<Embedding> streamEmbeddings(List<Filter> filters) {
+        List<MetadataType> filterTypes = new ArrayList<>();
+        String selectQuery = String.format("select id, content, embedding%s from %s %s",
+                metadataColumnList, tableName, whereClause(filters, filterTypes));
+        return openCursor(new Query(selectQuery, fetchSize, stmt -> bindFilters(stmt, 1, filters, filterTypes)),
+                rs -> new Embedding(rs.getString("id"), dataAdapter.toFloatArray(rs, "embedding"),
+                        rs.getObject("content", String.class), readMetadata(rs::getObject)));
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder {
+        void bind(PreparedStatement stmt) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Executes a query and streams its rows, keeping the connection, statement and cursor open until the stream is
+     * closed or the last row is read.
+     */
+    private <T> Stream<T> openCursor(Query query, RowMapper<T> mapper) {
+        Connection connection = null;
+        PreparedStatement stmt = null;
+        try {
+            connection = getConnection();
+            stmt = prepare(connection, query);
+            Cursor<T> cursor = new Cursor<>(connection, stmt, stmt.executeQuery(), mapper);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (SQLException | RuntimeException e) {
+            // Release the statement and connection before rethrowing.
+            if (stmt != null) {
+                closeQuietly(stmt);
+            }
+            if (connection != null) {
+                closeQuietly(connection);
+            }
+            throw e instanceof RuntimeException re ? re : new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Prepares and binds a query, with its fetch size and LOB prefetch size.
+     */
+    private PreparedStatement prepare(Connection connection, Query query) throws SQLException {
+        PreparedStatement stmt = connection.prepareStatement(query.sql());
+        try {
+            stmt.setFetchSize(query.rows());
+            if (stmt.isWrapperFor(OracleStatement.class)) {
+                stmt.unwrap(OracleStatement.class).setLobPrefetchSize(lobPrefetchSize);
+            }
+            query.binder().bind(stmt);
+            return stmt;
+        } catch (SQLException | RuntimeException e) {
+            closeQuietly(stmt);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            log.warn("Failed to close {}", closeable, e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface AsyncCall<T> {
+        CompletableFuture<T> call() throws SQLException;
+    }
+
+    /**
+     * Starts an async call, returning its failure as a failed future instead of throwing it.
+     */
+    private static <T> CompletableFuture<T> async(AsyncCall<T> call) {
+        try {
+            return call.call();
+        } catch (SQLException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Connection connection;
+        private final PreparedStatement stmt;
+        private final ResultSet rs;
+        private final RowMapper<T> mapper;
+        private boolean closed;
+
+        Cursor(Connection connection, PreparedStatement stmt, ResultSet rs, RowMapper<T> mapper) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.stmt = stmt;
+            this.rs = rs;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (closed) {
+                return false;
+            }
+            try {
+                if (!rs.next()) {
+                    // Return the connection to the pool as soon as the last row is read.
+                    close();
+                    return false;
                 }
+                action.accept(mapper.map(rs));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException(e);
             }
-        } catch (SQLException e) {
-            throw new RuntimeException(e);
         }
-        return matches;
+
+        void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Close the cursor, statement, then connection, attempting each even if an earlier one fails.
+            SQLException error = null;
+            for (AutoCloseable closeable : List.of(rs, stmt, connection)) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    SQLException closeError = e instanceof SQLException se ? se : new SQLException(e);
+                    if (error == null) {
+                        error = closeError;
+                    } else {
+                        error.addSuppressed(closeError);
+                    }
+                }
+            }
+            if (error != null) {
+                throw new RuntimeException(error);
+            }
+        }
+    }
+
+    /**
+     * An exact search compares the query with every row. An approximate search reads only the closest partitions or
+     * graph neighbors of the vector index, and returns the top rows at the requested target accuracy.
+     */
+    private String fetchClause(SearchRequest searchRequest) {
+        if (!searchRequest.isApproximate()) {
+            return String.format("fetch exact first %d rows only", searchRequest.getMaxResults());
+        }
+        if (searchRequest.getTargetAccuracy() == null) {
+            return String.format("fetch approx first %d rows only", searchRequest.getMaxResults());
+        }
+        return String.format("fetch approx first %d rows only with target accuracy %d",
+                searchRequest.getMaxResults(), searchRequest.getTargetAccuracy());
     }
 }
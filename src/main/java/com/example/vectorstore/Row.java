@@ -0,0 +1,12 @@
+package com.example.vectorstore;
+
+import java.sql.SQLException;
+
+/**
+ * Reads the columns of a query row, from either a {@link java.sql.ResultSet} or an {@link oracle.jdbc.OracleRow}
+ * published by the Oracle JDBC reactive extensions, so both map rows the same way.
+ */
+@FunctionalInterface
+interface Row {
+    <T> T get(String column, Class<T> type) throws SQLException;
+}
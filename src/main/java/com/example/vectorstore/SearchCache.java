@@ -0,0 +1,173 @@
+package com.example.vectorstore;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Builder;
+
+/**
+ * A bounded cache of search results, used by {@link OracleVectorStore#search(SearchRequest)}.
+ * <p>
+ * Results are keyed on the normalized query vector and the other search parameters, and expire after a time to
+ * live or when the cache is full, least recently used first. When quantizationBits is set, each dimension of the
+ * normalized query is rounded to that many fractional bits, so near-duplicate queries share results.
+ * <p>
+ * Every write through the vector store invalidates the cache. A search that was running when a write happened does
+ * not cache its results, so results are never stale. Share one cache between vector stores of the same table.
+ * Cached results are shared between callers and must not be modified.
+ */
+public class SearchCache {
+    public static final int DEFAULT_MAX_ENTRIES = 1_000;
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final Integer quantizationBits;
+    private final Map<Key, Entry> entries;
+    /**
+     * Incremented by each invalidation. Results are only cached if no invalidation happened during their search.
+     */
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param maxEntries the maximum number of cached searches.
+     * @param ttl how long results are cached.
+     * @param quantizationBits when set, the fractional bits kept from each query dimension. Lower values match more
+     *                         distant queries. When null, queries must match exactly.
+     */
+    @Builder
+    public SearchCache(Integer maxEntries, Duration ttl, Integer quantizationBits) {
+        this.maxEntries = Objects.requireNonNullElse(maxEntries, DEFAULT_MAX_ENTRIES);
+        this.ttlNanos = Objects.requireNonNullElse(ttl, DEFAULT_TTL).toNanos();
+        if (quantizationBits != null && (quantizationBits < 1 || quantizationBits > 23)) {
+            throw new IllegalArgumentException("quantizationBits must be between 1 and 23: " + quantizationBits);
+        }
+        this.quantizationBits = quantizationBits;
+        // An access ordered map iterates from least to most recently used.
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > SearchCache.this.maxEntries;
+            }
+        };
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    /**
+     * Removes all cached results. Called after each write to the vector store.
+     */
+    public synchronized void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    Key key(SearchRequest request) {
+        return new Key(quantize(request.getVector()), request.getMaxResults(), request.getMinScore(),
+                request.isApproximate(), request.getTargetAccuracy(), request.isIncludeVectors(), request.getFilters());
+    }
+
+    long generation() {
+        return generation.get();
+    }
+
+    synchronized List<SearchResult> get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+            hits.incrementAndGet();
+            return entry.results;
+        }
+        if (entry != null) {
+            entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Caches results, unless the cache was invalidated after the search began.
+     *
+     * @param generation the cache generation when the search began.
+     */
+    synchronized List<SearchResult> put(Key key, List<SearchResult> results, long generation) {
+        List<SearchResult> cached = List.copyOf(results);
+        if (generation == this.generation.get()) {
+            entries.put(key, new Entry(cached, System.nanoTime() + ttlNanos));
+        }
+        return cached;
+    }
+
+    /**
+     * Normalizes a query vector and encodes each dimension as an int, rounded when quantization is enabled.
+     */
+    private int[] quantize(float[] vector) {
+        double squaredSum = 0d;
+        for (float e : vector) {
+            squaredSum += e * e;
+        }
+        double magnitude = squaredSum > 0 ? Math.sqrt(squaredSum) : 1;
+        int[] result = new int[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            float normalized = (float) (vector[i] / magnitude);
+            result[i] = quantizationBits == null
+                    ? Float.floatToIntBits(normalized)
+                    : (int) Math.round(normalized * (double) (1 << quantizationBits));
+        }
+        return result;
+    }
+
+    private record Entry(List<SearchResult> results, long expiresAt) {}
+
+    static final class Key {
+        private final int[] vector;
+        private final int maxResults;
+        private final double minScore;
+        private final boolean approximate;
+        private final Integer targetAccuracy;
+        private final boolean includeVectors;
+        private final List<Filter> filters;
+        private final int hash;
+
+        private Key(int[] vector, int maxResults, double minScore, boolean approximate, Integer targetAccuracy, boolean includeVectors, List<Filter> filters) {
+            this.vector = vector;
+            this.maxResults = maxResults;
+            this.minScore = minScore;
+            this.approximate = approximate;
+            this.targetAccuracy = targetAccuracy;
+            this.includeVectors = includeVectors;
+            this.filters = filters;
+            this.hash = Objects.hash(Arrays.hashCode(vector), maxResults, minScore, approximate, targetAccuracy, includeVectors, filters);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other
+                    && hash == other.hash
+                    && maxResults == other.maxResults
+                    && Double.compare(minScore, other.minScore) == 0
+                    && approximate == other.approximate
+                    && Objects.equals(targetAccuracy, other.targetAccuracy)
+                    && includeVectors == other.includeVectors
+                    && filters.equals(other.filters)
+                    && Arrays.equals(vector, other.vector);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
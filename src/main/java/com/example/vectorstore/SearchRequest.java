@@ -1,5 +1,6 @@
 package com.example.vectorstore;
 
+import java.util.List;
 import java.util.Objects;
 
 import lombok.Builder;
@@ -10,13 +11,40 @@ public class SearchRequest {
     private final String text;
     private final float[] vector;
     private final int maxResults;
+    /**
+     * The lowest score returned. Defaults to 0, which excludes vectors pointing away from the search vector.
+     * See {@link SearchResult#score()} for the range of each vector format.
+     */
     private final double minScore;
+    /**
+     * When true, the vector index is used to find approximate nearest neighbors, instead of comparing every row.
+     */
+    private final boolean approximate;
+    /**
+     * The target accuracy percentage of an approximate search, from 1 to 100. When null, the index default is used.
+     */
+    private final Integer targetAccuracy;
+    /**
+     * When false, matching vectors are not returned, saving their transfer and conversion.
+     */
+    private final boolean includeVectors;
+    /**
+     * Predicates on metadata columns that every result must match. Applied in the database before ranking.
+     */
+    private final List<Filter> filters;
 
     @Builder
-    public SearchRequest(String text, float[] vector, Integer maxResults, Double minScore) {
+    public SearchRequest(String text, float[] vector, Integer maxResults, Double minScore, Boolean approximate, Integer targetAccuracy, Boolean includeVectors, List<Filter> filters) {
         this.text = text;
         this.vector = vector;
         this.maxResults = Objects.requireNonNullElse(maxResults, 1);
         this.minScore = Objects.requireNonNullElse(minScore, 0.0);
+        this.approximate = Objects.requireNonNullElse(approximate, false);
+        if (targetAccuracy != null && (targetAccuracy < 1 || targetAccuracy > 100)) {
+            throw new IllegalArgumentException("targetAccuracy must be between 1 and 100: " + targetAccuracy);
+        }
+        this.targetAccuracy = targetAccuracy;
+        this.includeVectors = Objects.requireNonNullElse(includeVectors, true);
+        this.filters = filters == null ? List.of() : List.copyOf(filters);
     }
 }
@@ -0,0 +1,13 @@
+package com.example.vectorstore;
+
+import com.example.model.Embedding;
+
+/**
+ * A search match.
+ *
+ * @param embedding the matching embedding. Its vector is null if the search did not include vectors.
+ * @param score the similarity to the search vector. For cosine distance formats (FLOAT64, FLOAT32 and INT8) this is
+ *              the cosine similarity, from -1 to 1, where 0 means unrelated. For BINARY, it is the fraction of bits that
+ *              match, from 0 to 1.
+ */
+public record SearchResult(Embedding embedding, double score) {}
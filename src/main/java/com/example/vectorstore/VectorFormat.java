@@ -0,0 +1,45 @@
+package com.example.vectorstore;
+
+import lombok.Getter;
+
+/**
+ * Storage format of the vector column. The OCI embedding models produce 32-bit floats, so FLOAT32 stores them
+ * without loss at half the size of FLOAT64. INT8 and BINARY are quantized on the client before they are written:
+ * <ul>
+ *     <li>INT8 scales each vector so its largest dimension is ±127 and rounds every dimension to a byte, a quarter of the size of FLOAT32.</li>
+ *     <li>BINARY keeps the sign of each dimension as one bit, a 32nd of the size of FLOAT32. The dimension count
+ *     must be a multiple of 8, and similarity is measured with Hamming distance, as cosine distance is not
+ *     supported for binary vectors.</li>
+ * </ul>
+ */
+@Getter
+public enum VectorFormat {
+    FLOAT64("COSINE"),
+    FLOAT32("COSINE"),
+    INT8("COSINE"),
+    BINARY("HAMMING");
+
+    /**
+     * The distance metric used to compare vectors of this format.
+     */
+    private final String distance;
+
+    VectorFormat(String distance) {
+        this.distance = distance;
+    }
+
+    /**
+     * Returns a SQL expression for the similarity between a vector column and a bind parameter. Cosine similarity
+     * ranges from -1 to 1, and Hamming similarity, the fraction of matching bits, from 0 to 1.
+     *
+     * @param column the vector column.
+     * @param dimensions the vector dimension count.
+     * @return the SQL expression.
+     */
+    String similarity(String column, int dimensions) {
+        return switch (this) {
+            case BINARY -> String.format("(1 - vector_distance(%s, ?, HAMMING) / %d)", column, dimensions);
+            default -> String.format("(1 - vector_distance(%s, ?, COSINE))", column);
+        };
+    }
+}
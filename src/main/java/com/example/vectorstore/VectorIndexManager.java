@@ -0,0 +1,310 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates, rebuilds and inspects the vector index of an {@link OracleVectorStore} table.
+ * <p>
+ * When the IVF partition count is not configured, it is derived from the row count when the index is built.
+ * As rows are added, partitions grow and searches read more vectors, so the index should be rebuilt after large
+ * ingests. Rebuilds use DBMS_VECTOR.REBUILD_INDEX, and the table remains available while they run.
+ */
+@Slf4j
+public class VectorIndexManager {
+    /**
+     * The minimum number of IVF partitions, used for new and small tables.
+     */
+    private static final int MIN_NEIGHBOR_PARTITIONS = 10;
+
+    private final OracleVectorStore vectorStore;
+    private final DataSource dataSource;
+    private final String tableName;
+    private final VectorFormat vectorFormat;
+    private final OracleDataAdapter dataAdapter;
+    @Getter
+    private volatile VectorIndexOptions options;
+    /**
+     * The table row count when the index was last built, or -1 if unknown.
+     */
+    private final AtomicLong rowsAtLastBuild = new AtomicLong(-1);
+
+    VectorIndexManager(OracleVectorStore vectorStore, DataSource dataSource, String tableName, VectorFormat vectorFormat, OracleDataAdapter dataAdapter, VectorIndexOptions options) {
+        this.vectorStore = vectorStore;
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.vectorFormat = vectorFormat;
+        this.dataAdapter = dataAdapter;
+        this.options = options == null ? VectorIndexOptions.builder().build() : options;
+    }
+
+    /**
+     * @return the index name.
+     */
+    public String getIndexName() {
+        return options.getName() != null ? options.getName() : tableName + "_vector_index";
+    }
+
+    /**
+     * Creates the vector index if it does not exist.
+     */
+    public void createIndexIfNotExists() {
+        long rows = countRows();
+        String createIndexQuery = String.format("""
+                create vector index if not exists %s on %s (embedding)
+                organization %s
+                distance %s
+                with target accuracy %d
+                parameters (%s)
+                parallel %d
+                """,
+                getIndexName(),
+                tableName,
+                options.getType().getOrganization(),
+                vectorFormat.getDistance(),
+                options.getTargetAccuracy(),
+                parameters(rows),
+                options.getParallel());
+        execute(createIndexQuery);
+        rowsAtLastBuild.set(rows);
+    }
+
+    public void dropIndex() {
+        execute(String.format("drop index if exists %s", getIndexName()));
+        rowsAtLastBuild.set(-1);
+    }
+
+    /**
+     * Rebuilds the index with its current options. The IVF partition count is derived again from the row count,
+     * unless it is configured.
+     */
+    public void rebuildIndex() {
+        rebuildIndex(options);
+    }
+
+    /**
+     * Rebuilds the index with new options, for example to change an IVF index to HNSW. The index name is kept.
+     *
+     * @param newOptions the options of the rebuilt index.
+     */
+    public void rebuildIndex(VectorIndexOptions newOptions) {
+        String indexName = getIndexName();
+        long rows = countRows();
+        long start = System.nanoTime();
+        try (Connection conn = dataSource.getConnection();
+             CallableStatement stmt = conn.prepareCall("""
+                     begin
+                         dbms_vector.rebuild_index(
+                             idx_name => ?,
+                             table_name => ?,
+                             idx_vector_col => 'EMBEDDING',
+                             idx_organization => ?,
+                             idx_distance_metric => ?,
+                             idx_accuracy => ?,
+                             idx_parameters => ?,
+                             idx_parallel_creation => ?
+                         );
+                     end;
+                     """)) {
+            stmt.setString(1, indexName);
+            stmt.setString(2, tableName);
+            stmt.setString(3, newOptions.getType().getOrganization().toUpperCase());
+            stmt.setString(4, vectorFormat.getDistance());
+            stmt.setInt(5, newOptions.getTargetAccuracy());
+            stmt.setString(6, jsonParameters(newOptions, rows));
+            stmt.setInt(7, newOptions.getParallel());
+            stmt.execute();
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        // Keep the name of the rebuilt index.
+        this.options = VectorIndexOptions.builder()
+                .name(indexName)
+                .type(newOptions.getType())
+                .targetAccuracy(newOptions.getTargetAccuracy())
+                .neighborPartitions(newOptions.getNeighborPartitions())
+                .neighbors(newOptions.getNeighbors())
+                .efConstruction(newOptions.getEfConstruction())
+                .parallel(newOptions.getParallel())
+                .build();
+        rowsAtLastBuild.set(rows);
+        log.info("Rebuilt vector index {} over {} rows in {} ms", indexName, rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Rebuilds the index if the table has grown by at least growthFactor since the index was last built.
+     * Call this after a large ingest.
+     *
+     * @param growthFactor the growth that triggers a rebuild, for example 2.0 when the row count has doubled.
+     * @return true if the index was rebuilt.
+     */
+    public boolean rebuildIndexIfGrown(double growthFactor) {
+        long rows = countRows();
+        long lastBuild = rowsAtLastBuild.get();
+        if (lastBuild < 0) {
+            // The build size is unknown, so use the current size as the baseline.
+            rowsAtLastBuild.compareAndSet(lastBuild, rows);
+            return false;
+        }
+        if (rows >= Math.max(1, lastBuild) * growthFactor) {
+            rebuildIndex();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Periodically checks the table size, rebuilding the index when it has grown by at least growthFactor.
+     *
+     * @param scheduler the scheduler to run checks on.
+     * @param interval the time between checks.
+     * @param growthFactor the growth that triggers a rebuild.
+     * @return the scheduled checks. Cancel to stop them.
+     */
+    public ScheduledFuture<?> scheduleRebuilds(ScheduledExecutorService scheduler, Duration interval, double growthFactor) {
+        return scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                rebuildIndexIfGrown(growthFactor);
+            } catch (RuntimeException e) {
+                log.error("Scheduled rebuild of vector index {} failed", getIndexName(), e);
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the index subtype and size, and the table row count.
+     */
+    public VectorIndexStats stats() {
+        String indexName = getIndexName().toUpperCase();
+        // IVF indexes store partitions in auxiliary tables named VECTOR$<index name>$...
+        String query = """
+                select
+                    (select index_subtype from user_indexes where index_name = ?) as subtype,
+                    (select nvl(sum(bytes), 0) from user_segments where segment_name like 'VECTOR$' || ? || '$%') as size_bytes
+                from dual
+                """;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, indexName);
+            stmt.setString(2, indexName);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return new VectorIndexStats(getIndexName(), rs.getString("subtype"), countRows(), rs.getLong("size_bytes"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Measures the recall of approximate searches against exact searches, using vectors sampled from the table as
+     * queries. Use this to tune the target accuracy and index parameters against search latency.
+     *
+     * @param sampleSize the number of query vectors to sample.
+     * @param topK the number of results per search.
+     * @param targetAccuracy the target accuracy of the approximate searches, or null for the index default.
+     * @return the mean fraction of exact results found by the approximate search, from 0 to 1.
+     */
+    public double measureRecall(int sampleSize, int topK, Integer targetAccuracy) {
+        List<float[]> queries = sampleVectors(sampleSize);
+        if (queries.isEmpty()) {
+            return 1.0;
+        }
+        double recall = 0;
+        for (float[] query : queries) {
+            Set<String> exact = ids(vectorStore.search(SearchRequest.builder()
+                    .vector(query)
+                    .maxResults(topK)
+                    .includeVectors(false)
+                    .build()));
+            Set<String> approximate = ids(vectorStore.search(SearchRequest.builder()
+                    .vector(query)
+                    .maxResults(topK)
+                    .approximate(true)
+                    .targetAccuracy(targetAccuracy)
+                    .includeVectors(false)
+                    .build()));
+            approximate.retainAll(exact);
+            recall += exact.isEmpty() ? 1.0 : (double) approximate.size() / exact.size();
+        }
+        return recall / queries.size();
+    }
+
+    /**
+     * Oracle recommends about the square root of the row count for the number of IVF partitions.
+     */
+    private static int neighborPartitions(long rows) {
+        return (int) Math.max(MIN_NEIGHBOR_PARTITIONS, Math.round(Math.sqrt(rows)));
+    }
+
+    private String parameters(long rows) {
+        return switch (options.getType()) {
+            case IVF -> String.format("type IVF, neighbor partitions %d", partitions(options, rows));
+            case HNSW -> String.format("type HNSW, neighbors %d, efconstruction %d", options.getNeighbors(), options.getEfConstruction());
+        };
+    }
+
+    private String jsonParameters(VectorIndexOptions options, long rows) {
+        return switch (options.getType()) {
+            case IVF -> String.format("{\"type\": \"IVF\", \"neighbor_partitions\": %d}", partitions(options, rows));
+            case HNSW -> String.format("{\"type\": \"HNSW\", \"neighbors\": %d, \"efConstruction\": %d}", options.getNeighbors(), options.getEfConstruction());
+        };
+    }
+
+    private int partitions(VectorIndexOptions options, long rows) {
+        return options.getNeighborPartitions() != null ? options.getNeighborPartitions() : neighborPartitions(rows);
+    }
+
+    private List<float[]> sampleVectors(int sampleSize) {
+        String query = String.format("select embedding from %s order by dbms_random.value fetch first %d rows only", tableName, sampleSize);
+        List<float[]> vectors = new ArrayList<>(sampleSize);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(query)) {
+            while (rs.next()) {
+                vectors.add(dataAdapter.toFloatArray(rs, "embedding"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return vectors;
+    }
+
+    private long countRows() {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(String.format("select count(*) from %s", tableName))) {
+            rs.next();
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void execute(String sql) {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Set<String> ids(List<SearchResult> results) {
+        Set<String> ids = new HashSet<>();
+        results.forEach(r -> ids.add(r.embedding().id()));
+        return ids;
+    }
+}
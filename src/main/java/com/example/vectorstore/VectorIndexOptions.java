@@ -0,0 +1,49 @@
+package com.example.vectorstore;
+
+import java.util.Objects;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Vector index configuration. Parameters that do not apply to the index type are ignored.
+ */
+@Getter
+public class VectorIndexOptions {
+    private final String name;
+    private final VectorIndexType type;
+    /**
+     * The default target accuracy percentage of approximate searches.
+     */
+    private final int targetAccuracy;
+    /**
+     * IVF: the number of partitions. When null, it is derived from the table row count.
+     */
+    private final Integer neighborPartitions;
+    /**
+     * HNSW: the maximum number of neighbors of each vector in the graph.
+     */
+    private final int neighbors;
+    /**
+     * HNSW: the number of candidates considered when adding a vector to the graph.
+     */
+    private final int efConstruction;
+    /**
+     * The degree of parallelism used to build the index.
+     */
+    private final int parallel;
+
+    /**
+     * @param name the index name. Defaults to the table name followed by "_vector_index".
+     */
+    @Builder
+    public VectorIndexOptions(String name, VectorIndexType type, Integer targetAccuracy, Integer neighborPartitions, Integer neighbors, Integer efConstruction, Integer parallel) {
+        this.name = name;
+        this.type = Objects.requireNonNullElse(type, VectorIndexType.IVF);
+        this.targetAccuracy = Objects.requireNonNullElse(targetAccuracy, 95);
+        this.neighborPartitions = neighborPartitions;
+        this.neighbors = Objects.requireNonNullElse(neighbors, 32);
+        this.efConstruction = Objects.requireNonNullElse(efConstruction, 200);
+        this.parallel = Objects.requireNonNullElse(parallel, 1);
+    }
+}
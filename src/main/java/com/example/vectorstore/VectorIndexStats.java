@@ -0,0 +1,12 @@
+package com.example.vectorstore;
+
+/**
+ * Statistics for a vector index.
+ *
+ * @param name the index name.
+ * @param subtype the index subtype reported by the database, for example NEIGHBOR_PARTITIONS_IVF.
+ * @param rows the number of rows in the indexed table.
+ * @param sizeBytes the on-disk size of the index. HNSW graphs are held in the vector memory pool, and only count
+ *                  their on-disk auxiliary structures.
+ */
+public record VectorIndexStats(String name, String subtype, long rows, long sizeBytes) {}
@@ -0,0 +1,29 @@
+package com.example.vectorstore;
+
+import lombok.Getter;
+
+/**
+ * Vector index types supported by Oracle Database 23ai.
+ */
+@Getter
+public enum VectorIndexType {
+    /**
+     * Inverted File Flat index. Vectors are clustered into neighbor partitions on disk, and a search reads only the
+     * partitions closest to the query. Scales to tables larger than memory.
+     */
+    IVF("neighbor partitions"),
+    /**
+     * Hierarchical Navigable Small World index. A graph of vectors held in the vector memory pool, with lower search
+     * latency than IVF. Requires the database vector_memory_size parameter to be large enough to hold the graph.
+     */
+    HNSW("inmemory neighbor graph");
+
+    /**
+     * The index organization clause.
+     */
+    private final String organization;
+
+    VectorIndexType(String organization) {
+        this.organization = organization;
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.example.model.SourceObject;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A table of source objects to ingest, shared by every node of a distributed ingestion.
+ * <p>
+ * Objects are enqueued once per location, with their ETags. Workers claim batches of pending objects with
+ * {@code select ... for update skip locked}, so concurrent workers never claim the same object, and hold each claim
+ * as a lease that they renew while they work. Objects are marked done once their embeddings are committed. The
+ * lease of a worker that crashes expires, and the object is claimed again by another worker, up to maxAttempts
+ * times.
+ * <p>
+ * Lease expiry times are stored and compared in UTC, from the database clock. A plain timestamp compared with
+ * systimestamp is converted with the session time zone, which JDBC sets from the JVM, so workers in different time
+ * zones, or any worker during a daylight saving change, would otherwise see leases expire early or late.
+ */
+@Slf4j
+@Getter
+public class WorkQueue {
+    public static final Duration DEFAULT_LEASE_DURATION = Duration.ofMinutes(5);
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+    private static final int ENQUEUE_BATCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final String tableName;
+    /**
+     * Identifies this worker as the owner of its leases. Unique per process by default.
+     */
+    private final String workerId;
+    /**
+     * How long a claim is held without being renewed.
+     */
+    private final Duration leaseDuration;
+    /**
+     * Number of times an object is claimed before it is given up on, for objects that repeatedly fail.
+     */
+    private final int maxAttempts;
+
+    @Builder
+    public WorkQueue(DataSource dataSource, String tableName, String workerId, Duration leaseDuration, Integer maxAttempts) {
+        this.dataSource = Objects.requireNonNull(dataSource, "dataSource");
+        this.tableName = Objects.requireNonNull(tableName, "tableName");
+        this.workerId = Objects.requireNonNullElseGet(workerId, () -> UUID.randomUUID().toString());
+        this.leaseDuration = Objects.requireNonNullElse(leaseDuration, DEFAULT_LEASE_DURATION);
+        this.maxAttempts = Objects.requireNonNullElse(maxAttempts, DEFAULT_MAX_ATTEMPTS);
+        if (this.leaseDuration.toSeconds() < 1 || this.maxAttempts < 1) {
+            throw new IllegalArgumentException("leaseDuration must be at least one second and maxAttempts must be positive");
+        }
+    }
+
+    public void createTableIfNotExists() {
+        String createTableQuery = String.format("""
+                create table if not exists %s (
+                    location varchar2(1024),
+                    object_name varchar2(1024),
+                    etag varchar2(256),
+                    object_size number(19),
+                    status varchar2(16) default 'PENDING' not null,
+                    owner varchar2(128),
+                    lease_expires timestamp,
+                    attempts number(10) default 0 not null,
+                    updated_at timestamp default systimestamp,
+                    primary key (location, object_name)
+                )
+                """, tableName);
+        // Claims scan the pending objects of a location.
+        String createIndexQuery = String.format("create index if not exists %s_claim_index on %s (location, status, lease_expires)",
+                tableName, tableName);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute(createTableQuery);
+            stmt.execute(createIndexQuery);
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Adds objects to the queue. New objects, and objects whose ETag has changed, become pending. Objects that are
+     * unchanged keep their state, so enqueuing a location again only queues what changed since the last run.
+     * Enqueuing the same objects from several nodes is safe, but only one node needs to.
+     *
+     * @param location the bucket or directory holding the objects.
+     * @param objects the objects to enqueue, with names relative to the location.
+     * @return the number of objects that became pending.
+     */
+    public long enqueue(String location, Stream<SourceObject> objects) {
+        // The ETags are compared with decode, which treats two nulls as equal.
+        String merge = String.format("""
+                merge into %s target using (values(?, ?, ?, ?)) source (location, object_name, etag, object_size)
+                on (target.location = source.location and target.object_name = source.object_name)
+                when matched then update set target.etag = source.etag, target.object_size = source.object_size,
+                    target.status = 'PENDING', target.owner = null, target.lease_expires = null, target.attempts = 0,
+                    target.updated_at = systimestamp
+                    where decode(target.etag, source.etag, 0, 1) = 1
+                when not matched then insert (target.location, target.object_name, target.etag, target.object_size)
+                    values (source.location, source.object_name, source.etag, source.object_size)
+                """, tableName);
+        long queued = 0;
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(merge)) {
+            int batched = 0;
+            Iterator<SourceObject> it = objects.iterator();
+            while (it.hasNext()) {
+                SourceObject object = it.next();
+                stmt.setString(1, location);
+                stmt.setString(2, object.name());
+                stmt.setString(3, object.etag());
+                stmt.setLong(4, object.size());
+                stmt.addBatch();
+                if (++batched == ENQUEUE_BATCH_SIZE || !it.hasNext()) {
+                    queued += count(stmt.executeBatch());
+                    batched = 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+        return queued;
+    }
+
+    /**
+     * Leases up to maxObjects pending objects to this worker. Objects leased by other workers are skipped, unless
+     * their lease has expired.
+     *
+     * @param location the bucket or directory to claim objects from.
+     * @param maxObjects the most objects to claim.
+     * @return the claimed objects, with names relative to the location. Empty if no object can be claimed now.
+     */
+    public List<SourceObject> claim(String location, int maxObjects) {
+        // With skip locked, Oracle locks rows as they are fetched, so limiting the rows fetched limits the rows
+        // locked. Rows locked by another worker's claim are skipped rather than waited on.
+        String select = String.format("""
+                select object_name, etag, object_size from %s
+                where location = ? and status = 'PENDING' and attempts < ?
+                and (lease_expires is null or lease_expires < sys_extract_utc(systimestamp))
+                for update skip locked
+                """, tableName);
+        String lease = String.format("""
+                update %s set owner = ?, lease_expires = sys_extract_utc(systimestamp) + numtodsinterval(?, 'SECOND'), attempts = attempts + 1
+                where location = ? and object_name = ?
+                """, tableName);
+        List<SourceObject> claimed = new ArrayList<>(maxObjects);
+        inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(select)) {
+                stmt.setString(1, location);
+                stmt.setInt(2, maxAttempts);
+                stmt.setFetchSize(maxObjects);
+                stmt.setMaxRows(maxObjects);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        claimed.add(new SourceObject(rs.getString("object_name"), rs.getString("etag"), rs.getLong("object_size")));
+                    }
+                }
+            }
+            if (!claimed.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(lease)) {
+                    for (SourceObject object : claimed) {
+                        stmt.setString(1, workerId);
+                        stmt.setLong(2, leaseDuration.toSeconds());
+                        stmt.setString(3, location);
+                        stmt.setString(4, object.name());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+            return null;
+        });
+        return claimed;
+    }
+
+    /**
+     * Extends this worker's leases on objects, so they are not reclaimed while they are being ingested.
+     *
+     * @return the number of leases extended. Leases that expired and were claimed by another worker are lost.
+     */
+    public long renew(String location, Collection<String> objectNames) {
+        return updateLeases(location, objectNames, """
+                update %s set lease_expires = sys_extract_utc(systimestamp) + numtodsinterval(?, 'SECOND')
+                where location = ? and object_name = ? and owner = ? and status = 'PENDING'
+                """, leaseDuration.toSeconds());
+    }
+
+    /**
+     * Marks objects done, after their embeddings have been committed.
+     *
+     * @return the number of objects marked done. Objects whose lease was lost, or that changed since they were
+     * claimed, are left for their current owner.
+     */
+    public long complete(String location, Collection<String> objectNames) {
+        long completed = updateLeases(location, objectNames, """
+                update %s set status = 'DONE', owner = null, lease_expires = null, updated_at = systimestamp
+                where location = ? and object_name = ? and owner = ? and status = 'PENDING'
+                """, null);
+        if (completed < objectNames.size()) {
+            log.warn("Worker {} lost the lease on {} of {} objects in {}", workerId, objectNames.size() - completed, objectNames.size(), location);
+        }
+        return completed;
+    }
+
+    /**
+     * Gives up this worker's leases on objects, so other workers can claim them immediately.
+     *
+     * @return the number of leases released.
+     */
+    public long release(String location, Collection<String> objectNames) {
+        return updateLeases(location, objectNames, """
+                update %s set owner = null, lease_expires = null
+                where location = ? and object_name = ? and owner = ? and status = 'PENDING'
+                """, null);
+    }
+
+    /**
+     * @return the number of objects in a location that are not yet done, and will still be claimed.
+     */
+    public long remaining(String location) {
+        String query = String.format("select count(*) from %s where location = ? and status = 'PENDING' and attempts < ?", tableName);
+        try (Connection conn = dataSource.getConnection(); PreparedStatement stmt = conn.prepareStatement(query)) {
+            stmt.setString(1, location);
+            stmt.setInt(2, maxAttempts);
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Runs a lease update for each object, binding the optional lease seconds first, then the location, object name
+     * and worker id.
+     */
+    private long updateLeases(String location, Collection<String> objectNames, String update, Long leaseSeconds) {
+        if (objectNames.isEmpty()) {
+            return 0;
+        }
+        return inTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(String.format(update, tableName))) {
+                for (String objectName : objectNames) {
+                    int parameter = 1;
+                    if (leaseSeconds != null) {
+                        stmt.setLong(parameter++, leaseSeconds);
+                    }
+                    stmt.setString(parameter++, location);
+                    stmt.setString(parameter++, objectName);
+                    stmt.setString(parameter, workerId);
+                    stmt.addBatch();
+                }
+                return count(stmt.executeBatch());
+            }
+        });
+    }
+
+    private static long count(int[] updateCounts) {
+        long count = 0;
+        for (int updated : updateCounts) {
+            count += Math.max(updated, 0);
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface Transaction<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    private <T> T inTransaction(Transaction<T> transaction) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                T result = transaction.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
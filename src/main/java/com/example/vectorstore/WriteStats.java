@@ -0,0 +1,41 @@
+package com.example.vectorstore;
+
+import java.time.Duration;
+
+/**
+ * Statistics for a write to the vector store.
+ *
+ * @param rows the number of rows written.
+ * @param batches the number of JDBC batches executed.
+ * @param totalBatchNanos the total time spent executing batches, summed across connections.
+ * @param maxBatchNanos the latency of the slowest batch.
+ * @param elapsedNanos the wall time of the write, including commits.
+ */
+public record WriteStats(long rows, int batches, long totalBatchNanos, long maxBatchNanos, long elapsedNanos) {
+    public static final WriteStats EMPTY = new WriteStats(0, 0, 0, 0, 0);
+
+    public Duration averageBatchLatency() {
+        return Duration.ofNanos(batches == 0 ? 0 : totalBatchNanos / batches);
+    }
+
+    public Duration maxBatchLatency() {
+        return Duration.ofNanos(maxBatchNanos);
+    }
+
+    public double rowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Combines the statistics of writes that ran in parallel over the given wall time.
+     */
+    WriteStats plus(WriteStats other, long elapsedNanos) {
+        return new WriteStats(
+                rows + other.rows,
+                batches + other.batches,
+                totalBatchNanos + other.totalBatchNanos,
+                Math.max(maxBatchNanos, other.maxBatchNanos),
+                elapsedNanos
+        );
+    }
+}
@@ -7,6 +7,7 @@ import java.sql.Statement;
 
 import com.example.documentloader.OCIDocumentLoader;
 import com.example.embeddingmodel.OCIEmbeddingModel;
+import com.example.pipeline.IngestionPipeline;
 import com.example.splitter.LineSplitter;
 import com.example.vectorstore.OracleVectorStore;
 import com.oracle.bmc.auth.ConfigFileAuthenticationDetailsProvider;
@@ -77,15 +78,18 @@ public class EmbedddingWorkflowIT {
         // Create the vector table in the database.
         vectorStore.createTableIfNotExists();
         var splitter = new LineSplitter();
+        // Create an ingestion pipeline to load, split, embed and store documents concurrently.
+        var pipeline = IngestionPipeline.builder()
+                .documentLoader(documentLoader)
+                .splitter(splitter)
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .build();
 
-        // Stream documents from OCI object storage.
-        documentLoader.streamDocuments(BUCKET_NAME, OBJECT_PREFIX)
-                // Split each object storage document into chunks.
-                .map(splitter::split)
-                // Embed each chunk list using OCI GenAI service.
-                .map(embeddingModel::embedAll)
-                // Store embeddings in Oracle Database 23ai.
-                .forEach(vectorStore::addAll);
+        // Stream documents from OCI object storage, split them into chunks, embed the chunks using OCI GenAI service,
+        // and store the embeddings in Oracle Database 23ai.
+        var result = pipeline.run(BUCKET_NAME, OBJECT_PREFIX);
+        assertThat(result.embeddings()).isGreaterThan(0);
 
         // Assert records were added to database.
         try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
@@ -0,0 +1,55 @@
+package com.example.documentloader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import com.example.metrics.FlowMetrics;
+import com.example.model.Document;
+import com.example.model.SourceObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalDocumentLoaderTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void listsFilesMatchingAPrefixInNameOrder() throws Exception {
+        for (String name : List.of("a.txt", "a/1.txt", "a/b/2.txt", "ab/3.txt", "c/4.txt")) {
+            Path file = directory.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.writeString(file, name);
+        }
+        try (var loader = new LocalDocumentLoader()) {
+            try (Stream<SourceObject> objects = loader.listObjects(directory.toString(), "a/")) {
+                assertThat(objects.map(SourceObject::name)).containsExactly("a/1.txt", "a/b/2.txt");
+            }
+            try (Stream<SourceObject> objects = loader.listObjects(directory.toString(), "a")) {
+                assertThat(objects.map(SourceObject::name)).containsExactly("a.txt", "a/1.txt", "a/b/2.txt", "ab/3.txt");
+            }
+            try (Stream<String> texts = loader.streamDocuments(directory.toString(), "c")) {
+                assertThat(texts).containsExactly("c/4.txt");
+            }
+        }
+    }
+
+    @Test
+    void decodesCharactersSplitAcrossMappedRegions() throws Exception {
+        String text = "héllo wörld, 日本語 ✓ 😀\n".repeat(50);
+        Files.writeString(directory.resolve("large.txt"), text);
+        // Map every file in regions smaller than a line, so multi-byte characters straddle region boundaries.
+        try (var loader = new LocalDocumentLoader(2, 0, 7, FlowMetrics.NOOP);
+             Stream<SourceObject> objects = loader.listObjects(directory.toString(), null);
+             Stream<Document> documents = loader.fetchDocuments(directory.toString(), objects)) {
+            Document document = documents.findFirst().orElseThrow();
+            // The file is read on demand rather than into memory.
+            assertThat(document.text()).isNull();
+            assertThat(document.readText()).isEqualTo(text);
+            assertThat(document.source().size()).isEqualTo(Files.size(directory.resolve("large.txt")));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.documentloader;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+import com.example.loadtest.SyntheticObjectStorage;
+import com.example.model.Document;
+import com.example.model.SourceObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OCIDocumentLoaderTest {
+    @Test
+    void skipsObjectsThatFailToDownload() {
+        var objectStorage = SyntheticObjectStorage.builder()
+                .objectCount(4)
+                .meanObjectSize(256)
+                .missingObjects(Set.of(2))
+                .folderMarker(true)
+                .build();
+        try (var loader = new OCIDocumentLoader(objectStorage.client(), "namespace", 2);
+             Stream<SourceObject> objects = loader.listObjects("bucket", "documents");
+             Stream<Document> documents = loader.fetchDocuments("bucket", objects)) {
+            assertThat(documents).extracting(Document::text)
+                    .containsExactly(objectStorage.text(0), objectStorage.text(1), objectStorage.text(3));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.documentloader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.StreamSupport;
+
+import com.oracle.bmc.objectstorage.model.ListObjects;
+import com.oracle.bmc.objectstorage.model.ObjectSummary;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ObjectPageSpliteratorTest {
+    @Test
+    void requestsTheNextPageWhenTheCurrentPageArrives() {
+        List<String> requested = new ArrayList<>();
+        ObjectPageSpliterator pages = new ObjectPageSpliterator(start -> {
+            requested.add(String.valueOf(start));
+            return CompletableFuture.completedFuture(page(start));
+        });
+        // Only the first page is requested before anything is consumed.
+        assertThat(requested).containsExactly("null");
+
+        List<String> names = new ArrayList<>();
+        pages.tryAdvance(o -> names.add(o.getName()));
+        assertThat(requested).containsExactly("null", "c");
+        pages.tryAdvance(o -> names.add(o.getName()));
+        assertThat(requested).containsExactly("null", "c");
+
+        pages.forEachRemaining(o -> names.add(o.getName()));
+        assertThat(names).containsExactly("a", "b", "c", "d", "e");
+        assertThat(requested).containsExactly("null", "c", "e");
+    }
+
+    @Test
+    void closeCancelsThePrefetchedPage() {
+        Map<String, CompletableFuture<ListObjects>> requested = new HashMap<>();
+        ObjectPageSpliterator pages = new ObjectPageSpliterator(start -> {
+            CompletableFuture<ListObjects> page = start == null
+                    ? CompletableFuture.completedFuture(page(null))
+                    : new CompletableFuture<>();
+            requested.put(String.valueOf(start), page);
+            return page;
+        });
+
+        assertThat(StreamSupport.stream(pages, false).limit(2).map(ObjectSummary::getName)).containsExactly("a", "b");
+        pages.close();
+        assertThat(requested.get("c")).isCancelled();
+    }
+
+    /**
+     * Returns a page of two objects, out of "a" to "e".
+     */
+    private static ListObjects page(String start) {
+        char first = start == null ? 'a' : start.charAt(0);
+        List<ObjectSummary> objects = new ArrayList<>();
+        for (char c = first; c < first + 2 && c <= 'e'; c++) {
+            objects.add(ObjectSummary.builder().name(String.valueOf(c)).build());
+        }
+        char next = (char) (first + 2);
+        return ListObjects.builder()
+                .objects(objects)
+                .nextStartWith(next <= 'e' ? String.valueOf(next) : null)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.documentloader;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelFetchSpliteratorTest {
+    @Test
+    void emitsResultsInSourceOrderWithBoundedConcurrency() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Integer> source = IntStream.range(0, 40).boxed().toList();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ParallelFetchSpliterator<Integer, String> results = new ParallelFetchSpliterator<>(source.iterator(), i -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    // Later elements finish first.
+                    Thread.sleep(8 - i % 8);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+                return "r" + i;
+            }, executor, 4);
+
+            assertThat(StreamSupport.stream(results, false))
+                    .containsExactlyElementsOf(source.stream().map(i -> "r" + i).toList());
+        }
+        assertThat(maxRunning.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void advancesTheSourceOnlyAsResultsAreConsumed() {
+        AtomicInteger consumed = new AtomicInteger();
+        var source = IntStream.range(0, 100).peek(i -> consumed.incrementAndGet()).boxed().iterator();
+        ParallelFetchSpliterator<Integer, Integer> results = new ParallelFetchSpliterator<>(source, i -> i, Runnable::run, 3);
+
+        results.tryAdvance(i -> assertThat(i).isZero());
+        assertThat(consumed.get()).isEqualTo(3);
+        results.tryAdvance(i -> assertThat(i).isOne());
+        assertThat(consumed.get()).isEqualTo(4);
+    }
+
+    @Test
+    void closeCancelsFetchesThatHaveNotStarted() {
+        Queue<Runnable> queued = new ConcurrentLinkedQueue<>();
+        AtomicInteger submitted = new AtomicInteger();
+        List<Integer> fetched = new ArrayList<>();
+        // Runs the first fetch at once, and holds the others until the test runs them.
+        ParallelFetchSpliterator<Integer, Integer> results = new ParallelFetchSpliterator<>(
+                List.of(0, 1, 2).iterator(),
+                i -> {
+                    fetched.add(i);
+                    return i;
+                },
+                task -> {
+                    if (submitted.getAndIncrement() == 0) {
+                        task.run();
+                    } else {
+                        queued.add(task);
+                    }
+                },
+                3);
+
+        assertThat(results.tryAdvance(i -> assertThat(i).isZero())).isTrue();
+        results.close();
+        queued.forEach(Runnable::run);
+
+        assertThat(fetched).containsExactly(0);
+        assertThat(queued).hasSize(2);
+    }
+
+    @Test
+    void closeInterruptsFetchesInProgress() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ParallelFetchSpliterator<Integer, Integer> results = new ParallelFetchSpliterator<>(List.of(0, 1).iterator(), i -> {
+                if (i == 0) {
+                    return i;
+                }
+                started.countDown();
+                try {
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return i;
+            }, executor, 2);
+
+            assertThat(results.tryAdvance(i -> assertThat(i).isZero())).isTrue();
+            assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+            results.close();
+
+            assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.embeddingmodel;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.example.splitter.TokenEstimator;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchPlannerTest {
+    private static final TokenEstimator ONE_CHAR_PER_TOKEN = TokenEstimator.charsPerToken(1);
+
+    @Test
+    void collapsesDuplicates() {
+        BatchPlanner planner = new BatchPlanner(96, 512, 96 * 512, ONE_CHAR_PER_TOKEN);
+
+        BatchPlanner.Plan plan = planner.plan(List.of("header", "a", "header", "b", "a"));
+
+        assertThat(plan.distinctInputs()).isEqualTo(3);
+        assertThat(plan.batches()).hasSize(1);
+        assertThat(plan.batches().getFirst().inputs()).containsExactly("header", "a", "b");
+        assertThat(plan.positions()).containsExactly(0, 1, 0, 2, 1);
+    }
+
+    @Test
+    void limitsInputsPerBatch() {
+        BatchPlanner planner = new BatchPlanner(96, 512, 96 * 512, ONE_CHAR_PER_TOKEN);
+        List<String> inputs = IntStream.range(0, 200).mapToObj(Integer::toString).toList();
+
+        BatchPlanner.Plan plan = planner.plan(inputs);
+
+        assertThat(plan.batches()).extracting(b -> b.inputs().size()).containsExactly(96, 96, 8);
+    }
+
+    @Test
+    void packsByTokenBudget() {
+        BatchPlanner planner = new BatchPlanner(96, 10, 20, ONE_CHAR_PER_TOKEN);
+        String longInput = String.join("", Collections.nCopies(50, "x"));
+
+        BatchPlanner.Plan plan = planner.plan(List.of("aaaaa", "bbbbb", longInput, "ccccc", "ddddd"));
+
+        // The long input costs the 10 token input maximum.
+        assertThat(plan.batches()).extracting(BatchPlanner.Batch::tokens).containsExactly(20, 10);
+        assertThat(plan.batches().getFirst().inputs()).containsExactly("aaaaa", "bbbbb", longInput);
+    }
+
+    @Test
+    void defaultTokenBudgetClosesBatchesOfLongInputs() {
+        BatchPlanner planner = new BatchPlanner(OCIEmbeddingModel.EMBEDDING_BATCH_SIZE, OCIEmbeddingModel.MAX_INPUT_TOKENS,
+                OCIEmbeddingModel.DEFAULT_MAX_BATCH_TOKENS, ONE_CHAR_PER_TOKEN);
+        List<String> inputs = IntStream.range(0, 96)
+                .mapToObj(i -> i + "x".repeat(OCIEmbeddingModel.MAX_INPUT_TOKENS))
+                .toList();
+
+        BatchPlanner.Plan plan = planner.plan(inputs);
+
+        // Fewer than the 96 input maximum, so the token budget closed each batch.
+        assertThat(plan.batches()).extracting(b -> b.inputs().size()).containsExactly(32, 32, 32);
+        assertThat(plan.batches()).allSatisfy(b -> assertThat(b.tokens()).isEqualTo(OCIEmbeddingModel.DEFAULT_MAX_BATCH_TOKENS));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.embeddingmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.model.Embedding;
+import com.oracle.bmc.generativeaiinference.model.EmbedTextDetails;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachingEmbeddingModelTest {
+    /**
+     * Embeds each chunk as its length, and records every batch it is sent.
+     */
+    private static class RecordingModel implements EmbeddingModel {
+        private final String id;
+        private final List<List<String>> batches = new ArrayList<>();
+
+        RecordingModel(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public List<Embedding> embedAll(List<String> chunks) {
+            batches.add(chunks);
+            return chunks.stream().map(c -> new Embedding(new float[]{c.length()}, c)).toList();
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+    }
+
+    @Test
+    void onlyEmbedsMissesInInputOrder() {
+        RecordingModel delegate = new RecordingModel("model:NONE");
+        CachingEmbeddingModel model = CachingEmbeddingModel.builder().delegate(delegate).build();
+
+        model.embedAll(List.of("a", "bb"));
+        List<Embedding> embeddings = model.embedAll(List.of("dddd", "a", "ccc", "dddd", "bb"));
+
+        // Hits skip the delegate, and repeated chunks are embedded once.
+        assertThat(delegate.batches).containsExactly(List.of("a", "bb"), List.of("dddd", "ccc"));
+        assertThat(embeddings).extracting(Embedding::content).containsExactly("dddd", "a", "ccc", "dddd", "bb");
+        assertThat(embeddings).extracting(e -> e.vector()[0]).containsExactly(4f, 1f, 3f, 4f, 2f);
+        assertThat(model.stats()).isEqualTo(new CacheStats(2, 0, 4));
+    }
+
+    @Test
+    void keysIncludeTheModelIdAndTruncateMode() {
+        LruEmbeddingCache shared = new LruEmbeddingCache(100);
+        RecordingModel none = new RecordingModel("model:NONE");
+        RecordingModel end = new RecordingModel("model:END");
+        CachingEmbeddingModel.builder().delegate(none).memoryCache(shared).build().embedAll(List.of("chunk"));
+
+        CachingEmbeddingModel truncating = CachingEmbeddingModel.builder().delegate(end).memoryCache(shared).build();
+        truncating.embedAll(List.of("chunk"));
+
+        assertThat(end.batches).containsExactly(List.of("chunk"));
+        assertThat(truncating.stats().hits()).isZero();
+        // The OCI model id carries the truncate mode.
+        assertThat(OCIEmbeddingModel.builder().model("m").truncate(EmbedTextDetails.Truncate.End).build().id())
+                .isNotEqualTo(OCIEmbeddingModel.builder().model("m").build().id());
+    }
+
+    @Test
+    void lruCacheEvictsTheLeastRecentlyUsed() {
+        LruEmbeddingCache cache = new LruEmbeddingCache(2);
+        cache.putAll(Map.of("a", new float[]{1}));
+        cache.putAll(Map.of("b", new float[]{2}));
+
+        cache.getAll(List.of("a"));
+        cache.putAll(Map.of("c", new float[]{3}));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getAll(List.of("a", "b", "c"))).containsOnlyKeys("a", "c");
+    }
+}
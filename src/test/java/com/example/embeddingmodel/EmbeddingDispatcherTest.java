@@ -0,0 +1,192 @@
+package com.example.embeddingmodel;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.metrics.FlowMetrics;
+import com.oracle.bmc.model.BmcException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+public class EmbeddingDispatcherTest {
+    private final FakeClock clock = new FakeClock();
+
+    @Test
+    void onlySuccessesRaiseTheLimit() throws Exception {
+        var dispatcher = dispatcher(2, 3, null, null);
+
+        for (int i = 0; i < 50; i++) {
+            assertThatThrownBy(() -> dispatcher.send(1, () -> {
+                throw error(500);
+            })).isInstanceOf(BmcException.class);
+        }
+        assertThat(dispatcher.limit()).isEqualTo(2);
+
+        for (int i = 0; i < 50; i++) {
+            dispatcher.send(1, () -> "ok");
+        }
+        assertThat(dispatcher.limit()).isGreaterThan(2);
+    }
+
+    @Test
+    void halvesTheLimitOncePerThrottlingWindow() throws Exception {
+        var dispatcher = dispatcher(16, 0, null, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch throttled = new CountDownLatch(1);
+        // A request that is in flight when another request cuts the limit.
+        CompletableFuture<Object> inFlight = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dispatcher.send(1, () -> {
+                    started.countDown();
+                    await(throttled);
+                    throw error(429);
+                });
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        started.await();
+
+        assertThatThrownBy(() -> dispatcher.send(1, () -> {
+            throw error(429);
+        })).isInstanceOf(BmcException.class);
+        assertThat(dispatcher.limit()).isEqualTo(8);
+
+        throttled.countDown();
+        assertThatThrownBy(inFlight::get).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(BmcException.class);
+        assertThat(dispatcher.limit()).isEqualTo(8);
+
+        // A request started after the cut opens a new window.
+        assertThatThrownBy(() -> dispatcher.send(1, () -> {
+            throw error(503);
+        })).isInstanceOf(BmcException.class);
+        assertThat(dispatcher.limit()).isEqualTo(4);
+    }
+
+    @Test
+    void backsOffExponentiallyUpToTheCap() throws Exception {
+        List<Long> ceilings = new CopyOnWriteArrayList<>();
+        // Halves each ceiling in place of a random pick, so the sleeps show the jitter is applied.
+        var dispatcher = new EmbeddingDispatcher(4, 4, null, null, 5, Duration.ofSeconds(4), FlowMetrics.NOOP, clock,
+                ceiling -> {
+                    ceilings.add(ceiling);
+                    return ceiling / 2;
+                });
+        AtomicInteger attempts = new AtomicInteger();
+
+        String response = dispatcher.send(1, () -> {
+            if (attempts.incrementAndGet() <= 5) {
+                throw error(429);
+            }
+            return "ok";
+        });
+
+        assertThat(response).isEqualTo("ok");
+        assertThat(ceilings).containsExactly(seconds(4), seconds(8), seconds(16), seconds(20), seconds(20));
+        assertThat(clock.sleeps).containsExactly(seconds(2), seconds(4), seconds(8), seconds(10), seconds(10));
+    }
+
+    @Test
+    void givesUpWhenRetriesRunOut() {
+        var dispatcher = dispatcher(4, 3, null, null);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> dispatcher.send(1, () -> {
+            throw error(500 + attempts.incrementAndGet());
+        })).isInstanceOf(BmcException.class)
+                .extracting(e -> ((BmcException) e).getStatusCode())
+                .isEqualTo(504);
+        assertThat(attempts).hasValue(4);
+        assertThat(clock.sleeps).hasSize(3);
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        var dispatcher = dispatcher(4, 3, null, null);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThatThrownBy(() -> dispatcher.send(1, () -> {
+            attempts.incrementAndGet();
+            throw error(400);
+        })).isInstanceOf(BmcException.class);
+        assertThat(attempts).hasValue(1);
+        assertThat(clock.sleeps).isEmpty();
+    }
+
+    @Test
+    void waitsForTheRequestBudget() throws Exception {
+        // 10 requests per second, bursting to 60.
+        var dispatcher = dispatcher(4, 0, 600L, null);
+
+        for (int i = 0; i < 60; i++) {
+            dispatcher.send(1, () -> "ok");
+        }
+        assertThat(clock.sleeps).isEmpty();
+
+        dispatcher.send(1, () -> "ok");
+        assertThat(clock.sleeps).hasSize(1);
+        assertThat(clock.sleeps.getFirst()).isCloseTo(Duration.ofMillis(100).toNanos(), within(1000L));
+    }
+
+    @Test
+    void waitsForTheTokenBudget() throws Exception {
+        // 1000 tokens per second, bursting to 6000.
+        var dispatcher = dispatcher(4, 0, null, 60_000L);
+
+        dispatcher.send(6000, () -> "ok");
+        assertThat(clock.sleeps).isEmpty();
+
+        dispatcher.send(3000, () -> "ok");
+        assertThat(clock.sleeps).hasSize(1);
+        assertThat(clock.sleeps.getFirst()).isCloseTo(seconds(3), within(1000L));
+    }
+
+    private EmbeddingDispatcher dispatcher(int initialConcurrency, int maxRetries, Long requestsPerMinute, Long tokensPerMinute) {
+        return new EmbeddingDispatcher(initialConcurrency, 32, requestsPerMinute, tokensPerMinute, maxRetries,
+                Duration.ofMillis(250), FlowMetrics.NOOP, clock, ceiling -> ceiling);
+    }
+
+    private static BmcException error(int statusCode) {
+        return new BmcException(statusCode, "Error", "Status " + statusCode, null);
+    }
+
+    private static long seconds(long seconds) {
+        return Duration.ofSeconds(seconds).toNanos();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Ticks forward by a nanosecond on each reading, and by the requested time on each sleep, without sleeping.
+     */
+    private static class FakeClock implements NanoClock {
+        private final AtomicLong now = new AtomicLong();
+        private final List<Long> sleeps = new CopyOnWriteArrayList<>();
+
+        @Override
+        public long nanoTime() {
+            return now.incrementAndGet();
+        }
+
+        @Override
+        public void sleep(long nanos) {
+            sleeps.add(nanos);
+            now.addAndGet(nanos);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.embeddingmodel;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.example.loadtest.SyntheticGenerativeAi;
+import com.example.model.Embedding;
+import com.oracle.bmc.model.BmcException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OCIEmbeddingModelTest {
+    @Test
+    void retriesThrottledRequestsAndKeepsInputOrder() {
+        var genAi = SyntheticGenerativeAi.builder().dimensions(16).throttleEvery(3).build();
+        var embeddingModel = OCIEmbeddingModel.builder()
+                .model("synthetic")
+                .compartmentId("synthetic")
+                .aiClient(genAi.client())
+                .servingModeType(ServingModeType.DEDICATED)
+                .maxRetries(50)
+                .retryBackoff(Duration.ofMillis(1))
+                .build();
+        List<String> chunks = IntStream.range(0, 1000).mapToObj(i -> "chunk " + i).toList();
+
+        List<Embedding> embeddings = embeddingModel.embedAll(chunks);
+
+        assertThat(genAi.throttled()).isPositive();
+        assertThat(embeddings).hasSize(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            assertThat(embeddings.get(i).content()).isEqualTo(chunks.get(i));
+            assertThat(embeddings.get(i).vector()).containsExactly(genAi.embedding(chunks.get(i)));
+        }
+        assertThat(embeddingModel.concurrencyLimit()).isBetween(1, ServingModeType.DEDICATED.getMaxConcurrency());
+    }
+
+    @Test
+    void givesUpAfterMaxRetries() {
+        var genAi = SyntheticGenerativeAi.builder().dimensions(16).throttleEvery(1).build();
+        var embeddingModel = OCIEmbeddingModel.builder()
+                .model("synthetic")
+                .compartmentId("synthetic")
+                .aiClient(genAi.client())
+                .maxRetries(2)
+                .retryBackoff(Duration.ofMillis(1))
+                .build();
+
+        assertThatThrownBy(() -> embeddingModel.embedAll(List.of("chunk")))
+                .isInstanceOfSatisfying(BmcException.class, e -> assertThat(e.getStatusCode()).isEqualTo(429));
+        assertThat(genAi.requests()).isEqualTo(3);
+        assertThat(embeddingModel.concurrencyLimit()).isEqualTo(1);
+    }
+}
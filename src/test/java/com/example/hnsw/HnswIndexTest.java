@@ -0,0 +1,103 @@
+package com.example.hnsw;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import com.example.model.Embedding;
+import com.example.vectorstore.SearchResult;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class HnswIndexTest {
+    private static final int DIMENSIONS = 64;
+
+    @Test
+    void matchesBruteForceSearch() {
+        Random random = new Random(7);
+        List<float[]> vectors = IntStream.range(0, 2_000).mapToObj(i -> randomVector(random)).toList();
+        HnswIndex index = HnswIndex.builder().dimensions(DIMENSIONS).initialCapacity(16).build();
+        for (int i = 0; i < vectors.size(); i++) {
+            index.add(new Embedding(Integer.toString(i), vectors.get(i), "chunk " + i));
+        }
+
+        int k = 10;
+        double recall = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<String> exact = new HashSet<>(IntStream.range(0, vectors.size()).boxed()
+                    .sorted(Comparator.comparingDouble(i -> -cosine(query, vectors.get(i))))
+                    .limit(k)
+                    .map(Object::toString)
+                    .toList());
+            List<SearchResult> results = index.search(query, k, false);
+            assertThat(results).hasSize(k);
+            assertThat(results).isSortedAccordingTo(Comparator.comparingDouble(SearchResult::score).reversed());
+            recall += results.stream().filter(r -> exact.contains(r.embedding().id())).count() / (double) k;
+        }
+        assertThat(recall / queries).isGreaterThan(0.9);
+    }
+
+    @Test
+    void replacesAndRemovesById() {
+        HnswIndex index = HnswIndex.builder().dimensions(2).build();
+        index.add(new Embedding("a", new float[]{1, 0}, "first"));
+        index.add(new Embedding("b", new float[]{0, 1}, "second"));
+        index.add(new Embedding("a", new float[]{-1, 0}, "replaced"));
+
+        List<SearchResult> results = index.search(new float[]{-2, 0}, 1, true);
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(results.getFirst().embedding().content()).isEqualTo("replaced");
+        assertThat(results.getFirst().embedding().vector()).containsExactly(-1, 0);
+        assertThat(results.getFirst().score()).isCloseTo(1.0, within(1e-6));
+
+        assertThat(index.remove("a")).isTrue();
+        assertThat(index.search(new float[]{-1, 0}, 2, false)).extracting(r -> r.embedding().id()).containsExactly("b");
+    }
+
+    @Test
+    void reclaimsReplacedNodes() {
+        Random random = new Random(11);
+        HnswIndex index = HnswIndex.builder().dimensions(DIMENSIONS).build();
+        float[][] latest = new float[100][];
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < latest.length; i++) {
+                latest[i] = randomVector(random);
+                index.add(new Embedding(Integer.toString(i), latest[i], "round " + round));
+            }
+        }
+
+        assertThat(index.size()).isEqualTo(100);
+        // Deleted nodes are reclaimed once they outnumber live ones.
+        assertThat(index.nodeCount()).isLessThanOrEqualTo(2 * 100 + 1);
+        for (int i = 0; i < latest.length; i++) {
+            SearchResult best = index.search(latest[i], 1, false).getFirst();
+            assertThat(best.embedding().id()).isEqualTo(Integer.toString(i));
+            assertThat(best.embedding().content()).isEqualTo("round 19");
+        }
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0, aa = 0, bb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            aa += a[i] * a[i];
+            bb += b[i] * b[i];
+        }
+        return dot / Math.sqrt(aa * bb);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.hnsw;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.example.model.Embedding;
+import com.example.vectorstore.Filter;
+import com.example.vectorstore.MetadataColumn;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.SearchRequest;
+import com.example.vectorstore.SearchResult;
+import com.example.vectorstore.WriteStats;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HnswVectorTierTest {
+    private final StubVectorStore vectorStore = new StubVectorStore();
+
+    @Test
+    void keepsMetadataOfEmbeddingsWithoutIds() {
+        HnswVectorTier tier = HnswVectorTier.builder().vectorStore(vectorStore).build();
+        tier.load();
+
+        tier.addAll(List.of(
+                new Embedding(null, new float[]{1, 0}, "first", Map.of("tenant", "a")),
+                new Embedding(null, new float[]{0, 1}, "second", Map.of("tenant", "b"))));
+
+        assertThat(vectorStore.rows).hasSize(2);
+        assertThat(vectorStore.rows).allSatisfy(row -> assertThat(row.id()).isNotNull());
+        assertThat(vectorStore.rows).extracting(Embedding::metadata)
+                .containsExactly(Map.of("tenant", "a"), Map.of("tenant", "b"));
+
+        List<SearchResult> results = tier.search(SearchRequest.builder().vector(new float[]{0, 2}).build());
+        assertThat(tier.hits()).isEqualTo(1);
+        assertThat(results.getFirst().embedding().content()).isEqualTo("second");
+        assertThat(results.getFirst().embedding().metadata()).isEqualTo(Map.of("tenant", "b"));
+    }
+
+    @Test
+    void loadsMetadataFromTheStore() {
+        vectorStore.rows.add(new Embedding("a", new float[]{1, 0}, "first", Map.of("tenant", "a")));
+        HnswVectorTier tier = HnswVectorTier.builder().vectorStore(vectorStore).build();
+        tier.load();
+
+        List<SearchResult> results = tier.search(SearchRequest.builder().vector(new float[]{1, 0}).build());
+
+        assertThat(tier.hits()).isEqualTo(1);
+        assertThat(results.getFirst().embedding().metadata()).isEqualTo(Map.of("tenant", "a"));
+    }
+
+    @Test
+    void sendsFilteredSearchesToTheStore() {
+        HnswVectorTier tier = HnswVectorTier.builder().vectorStore(vectorStore).build();
+        tier.load();
+        tier.add(new Embedding(null, new float[]{1, 0}, "first", Map.of("tenant", "a")));
+
+        tier.search(SearchRequest.builder()
+                .vector(new float[]{1, 0})
+                .filters(List.of(Filter.eq("tenant", "a")))
+                .build());
+
+        assertThat(tier.misses()).isEqualTo(1);
+        assertThat(vectorStore.searches).isEqualTo(1);
+    }
+
+    /**
+     * Keeps written rows in memory, in place of the database.
+     */
+    private static class StubVectorStore extends OracleVectorStore {
+        private final List<Embedding> rows = new ArrayList<>();
+        private int searches;
+
+        StubVectorStore() {
+            super(null, "vectors", 2, null, null, null, null, null, null, null, null,
+                    List.of(MetadataColumn.varchar("tenant")), null, null, null, null);
+        }
+
+        @Override
+        public WriteStats addAll(List<Embedding> embeddings) {
+            rows.addAll(embeddings);
+            return WriteStats.EMPTY;
+        }
+
+        @Override
+        public void forEachEmbedding(Consumer<Embedding> consumer) {
+            rows.forEach(consumer);
+        }
+
+        @Override
+        public List<SearchResult> search(SearchRequest searchRequest) {
+            searches++;
+            return List.of();
+        }
+    }
+}
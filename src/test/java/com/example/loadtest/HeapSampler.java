@@ -0,0 +1,60 @@
+package com.example.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples heap usage while a load test runs, and reports the peak and the garbage collection time.
+ */
+class HeapSampler implements AutoCloseable {
+    private static final long MB = 1024 * 1024;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "heap-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong peakUsed = new AtomicLong();
+    private final long startGcCount = gcCount();
+    private final long startGcMillis = gcMillis();
+
+    HeapSampler() {
+        scheduler.scheduleAtFixedRate(this::sample, 0, 50, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        sample();
+    }
+
+    String summary() {
+        return String.format("heap         peak=%d MB  max=%d MB  gc=%d collections, %d ms",
+                peakUsed.get() / MB,
+                memory.getHeapMemoryUsage().getMax() / MB,
+                gcCount() - startGcCount,
+                gcMillis() - startGcMillis);
+    }
+
+    private void sample() {
+        peakUsed.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.loadtest;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.example.documentloader.OCIDocumentLoader;
+import com.example.embeddingmodel.OCIEmbeddingModel;
+import com.example.model.Embedding;
+import com.example.pipeline.IngestionPipeline;
+import com.example.pipeline.IngestionResult;
+import com.example.splitter.ChunkingSplitter;
+import com.example.vectorstore.Filter;
+import com.example.vectorstore.MetadataColumn;
+import com.example.vectorstore.ObjectManifest;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.SearchRequest;
+import com.example.vectorstore.SearchResult;
+import com.example.vectorstore.VectorFormat;
+import com.example.vectorstore.WorkQueue;
+import lombok.extern.slf4j.Slf4j;
+import oracle.ucp.jdbc.PoolDataSource;
+import oracle.ucp.jdbc.PoolDataSourceFactory;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.oracle.OracleContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load tests the ingestion pipeline against a local Oracle Database container, with in-process stand-ins for OCI
+ * Object Storage and GenAI. No OCI credentials are needed.
+ * <p>
+ * Configure the load with system properties, for example:
+ * <pre>
+ * mvn verify -Dit.test=IngestionLoadIT -Dloadtest.documents=10000 -Dloadtest.genaiLatencyMs=300
+ * </pre>
+ * The run reports documents and chunks per second, latency percentiles for each stage, and heap usage.
+ */
+@Slf4j
+@Testcontainers(disabledWithoutDocker = true)
+public class IngestionLoadIT {
+    private static final String TABLE = "load_test_vectors";
+    private static final String BUCKET = "loadtest";
+    private static final String PREFIX = "documents";
+
+    private final int documents = Integer.getInteger("loadtest.documents", 2_000);
+    private final int documentSize = Integer.getInteger("loadtest.documentSize", 16 * 1024);
+    private final int dimensions = Integer.getInteger("loadtest.dimensions", 1024);
+    private final VectorFormat vectorFormat = VectorFormat.valueOf(System.getProperty("loadtest.vectorFormat", "FLOAT32"));
+    private final Duration storageLatency = Duration.ofMillis(Long.getLong("loadtest.storageLatencyMs", 20));
+    private final Duration storageJitter = Duration.ofMillis(Long.getLong("loadtest.storageJitterMs", 30));
+    private final Duration genaiLatency = Duration.ofMillis(Long.getLong("loadtest.genaiLatencyMs", 150));
+    private final Duration genaiJitter = Duration.ofMillis(Long.getLong("loadtest.genaiJitterMs", 100));
+    private final double throttleRate = Double.parseDouble(System.getProperty("loadtest.throttleRate", "0"));
+    private final Integer maxConcurrentRequests = Integer.getInteger("loadtest.maxConcurrentRequests");
+    private final int fetchConcurrency = Integer.getInteger("loadtest.fetchConcurrency", OCIDocumentLoader.DEFAULT_FETCH_CONCURRENCY);
+    private final int embedConcurrency = Integer.getInteger("loadtest.embedConcurrency", 16);
+    private final int writeConcurrency = Integer.getInteger("loadtest.writeConcurrency", 2);
+
+    // Pre-pull this image to avoid testcontainers image pull timeouts:
+    // docker pull gvenzl/oracle-free:23.5-slim-faststart
+    @Container
+    private static final OracleContainer oracleContainer = new OracleContainer("gvenzl/oracle-free:23.5-slim-faststart")
+            .withUsername("testuser")
+            .withPassword(("testpwd"));
+
+    private PoolDataSource dataSource(String poolName) throws Exception {
+        PoolDataSource dataSource = PoolDataSourceFactory.getPoolDataSource();
+        dataSource.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
+        dataSource.setConnectionPoolName(poolName);
+        dataSource.setUser(oracleContainer.getUsername());
+        dataSource.setPassword(oracleContainer.getPassword());
+        dataSource.setURL(oracleContainer.getJdbcUrl());
+        dataSource.setMaxPoolSize(writeConcurrency + 2);
+        return dataSource;
+    }
+
+    @Test
+    void ingestSyntheticBucket() throws Exception {
+        PoolDataSource dataSource = dataSource("LOAD_TEST");
+
+        var objectStorage = SyntheticObjectStorage.builder()
+                .objectCount(documents)
+                .meanObjectSize(documentSize)
+                .latency(storageLatency)
+                .jitter(storageJitter)
+                .build();
+        var genAi = SyntheticGenerativeAi.builder()
+                .dimensions(dimensions)
+                .latency(genaiLatency)
+                .jitter(genaiJitter)
+                .throttleRate(throttleRate)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .build();
+        var embeddingModel = new TimedEmbeddingModel(OCIEmbeddingModel.builder()
+                .model("synthetic")
+                .compartmentId("synthetic")
+                .aiClient(genAi.client())
+                .build());
+        var vectorStore = new TimedVectorStore(dataSource, TABLE, dimensions, vectorFormat);
+        vectorStore.createTableIfNotExists();
+        var pipeline = IngestionPipeline.builder()
+                .documentLoader(new OCIDocumentLoader(objectStorage.client(), "synthetic", fetchConcurrency))
+                .splitter(ChunkingSplitter.builder().build())
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .embedConcurrency(embedConcurrency)
+                .writeConcurrency(writeConcurrency)
+                .build();
+
+        IngestionResult result;
+        HeapSampler heap = new HeapSampler();
+        try (heap) {
+            result = pipeline.run(BUCKET, PREFIX);
+        }
+
+        double seconds = result.elapsed().toNanos() / 1e9;
+        log.info("""
+                        Ingested {} documents ({} MB) into {} chunks in {} s
+                        documents/s  {}
+                        chunks/s     {}
+                        {}
+                        {}
+                        {}
+                        {}
+                        {}
+                        {}
+                        genai        {} requests, {} throttled""",
+                result.documents(), objectStorage.bytesServed() / (1024 * 1024), result.chunks(), String.format("%.1f", seconds),
+                String.format("%.1f", result.documents() / seconds),
+                String.format("%.1f", result.chunks() / seconds),
+                objectStorage.listLatency().summary(),
+                objectStorage.getLatency().summary(),
+                genAi.embedLatency().summary(),
+                embeddingModel.latency().summary(),
+                vectorStore.latency().summary(),
+                heap.summary(),
+                genAi.requests(), genAi.throttled());
+
+        assertThat(result.documents()).isEqualTo(documents);
+        assertThat(result.embeddings()).isEqualTo(result.chunks());
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + TABLE)) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(result.embeddings());
+        }
+    }
+
+    @Test
+    void syncOnlyIngestsChangedObjects() throws Exception {
+        PoolDataSource dataSource = dataSource("SYNC_TEST");
+        var genAi = SyntheticGenerativeAi.builder().dimensions(dimensions).build();
+        var embeddingModel = OCIEmbeddingModel.builder()
+                .model("synthetic")
+                .compartmentId("synthetic")
+                .aiClient(genAi.client())
+                .build();
+        var vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("sync_test_vectors")
+                .dimensions(dimensions)
+                .vectorFormat(vectorFormat)
+                .build();
+        vectorStore.createTableIfNotExists();
+        var manifest = new ObjectManifest(dataSource, "sync_test_manifest");
+        manifest.createTableIfNotExists();
+
+        IngestionResult first = pipeline(100, embeddingModel, vectorStore, manifest).sync(BUCKET, PREFIX);
+        assertThat(first.documents()).isEqualTo(100);
+        IngestionResult second = pipeline(100, embeddingModel, vectorStore, manifest).sync(BUCKET, PREFIX);
+        assertThat(second.documents()).isZero();
+        assertThat(second.unchanged()).isEqualTo(100);
+        // Objects 80 to 99 have been deleted from the bucket.
+        IngestionResult third = pipeline(80, embeddingModel, vectorStore, manifest).sync(BUCKET, PREFIX);
+        assertThat(third.unchanged()).isEqualTo(80);
+        assertThat(third.deleted()).isEqualTo(20);
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(distinct source_object), count(*) from sync_test_vectors")) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(80);
+            assertThat(rs.getLong(2)).isLessThan(first.embeddings());
+        }
+        assertThat(manifest.entries(BUCKET + "/" + PREFIX)).hasSize(80);
+    }
+
+    @Test
+    void workersShareAQueueWithoutDuplicates() throws Exception {
+        PoolDataSource dataSource = dataSource("WORK_TEST");
+        // Each worker writes, claims and renews leases on its own connections.
+        dataSource.setMaxPoolSize(3 * (writeConcurrency + 2));
+        var genAi = SyntheticGenerativeAi.builder().dimensions(dimensions).build();
+        var objectStorage = SyntheticObjectStorage.builder().objectCount(300).meanObjectSize(4 * 1024).build();
+        var vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("work_test_vectors")
+                .dimensions(dimensions)
+                .vectorFormat(vectorFormat)
+                .build();
+        vectorStore.createTableIfNotExists();
+        var workers = new ArrayList<IngestionPipeline>();
+        for (int i = 0; i < 3; i++) {
+            var workQueue = WorkQueue.builder()
+                    .dataSource(dataSource)
+                    .tableName("work_test_queue")
+                    .workerId("worker-" + i)
+                    .build();
+            workQueue.createTableIfNotExists();
+            workers.add(IngestionPipeline.builder()
+                    .documentLoader(new OCIDocumentLoader(objectStorage.client(), "synthetic"))
+                    .splitter(ChunkingSplitter.builder().build())
+                    .embeddingModel(OCIEmbeddingModel.builder()
+                            .model("synthetic")
+                            .compartmentId("synthetic")
+                            .aiClient(genAi.client())
+                            .build())
+                    .vectorStore(vectorStore)
+                    .workQueue(workQueue)
+                    .claimSize(8)
+                    .build());
+        }
+
+        assertThat(workers.getFirst().enqueue(BUCKET, PREFIX)).isEqualTo(300);
+        List<CompletableFuture<IngestionResult>> results = workers.stream()
+                .map(worker -> CompletableFuture.supplyAsync(() -> worker.work(BUCKET)))
+                .toList();
+        long documents = 0;
+        for (CompletableFuture<IngestionResult> result : results) {
+            documents += result.get(5, TimeUnit.MINUTES).documents();
+        }
+        assertThat(documents).isEqualTo(300);
+        // Enqueuing unchanged objects again queues nothing.
+        assertThat(workers.getFirst().enqueue(BUCKET, PREFIX)).isZero();
+
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(distinct source_object), count(*), count(distinct source_object || '#' || chunk_ordinal) from work_test_vectors")) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(300);
+            assertThat(rs.getLong(3)).isEqualTo(rs.getLong(2));
+        }
+    }
+
+    @Test
+    void filteredSearchReturnsOneTenant() throws Exception {
+        PoolDataSource dataSource = dataSource("FILTER_TEST");
+        var vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("filter_test_vectors")
+                .dimensions(4)
+                .metadataColumns(List.of(MetadataColumn.varchar("tenant"), MetadataColumn.number("priority")))
+                .partitionColumn("tenant")
+                .build();
+        vectorStore.createTableIfNotExists();
+        List<Embedding> embeddings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String tenant = i % 2 == 0 ? "acme" : "globex";
+            embeddings.add(new Embedding(null, new float[]{1, i, 0, 1}, tenant + " chunk " + i, Map.of("tenant", tenant, "priority", i)));
+        }
+        vectorStore.addAll(embeddings);
+
+        List<SearchResult> results = vectorStore.search(SearchRequest.builder()
+                .vector(new float[]{1, 1, 0, 1})
+                .maxResults(20)
+                .filters(List.of(Filter.eq("tenant", "globex")))
+                .build());
+
+        assertThat(results).hasSize(10);
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.embedding().content()).startsWith("globex");
+            assertThat(result.embedding().metadata()).containsEntry("tenant", "globex");
+            int chunk = Integer.parseInt(result.embedding().content().substring("globex chunk ".length()));
+            assertThat((BigDecimal) result.embedding().metadata().get("priority")).isEqualByComparingTo(BigDecimal.valueOf(chunk));
+        });
+        // Automatic list partitioning adds a partition for each tenant to the initial partition.
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from user_tab_partitions where table_name = 'FILTER_TEST_VECTORS'")) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(3);
+        }
+    }
+
+    private IngestionPipeline pipeline(int objects, OCIEmbeddingModel embeddingModel, OracleVectorStore vectorStore, ObjectManifest manifest) {
+        var objectStorage = SyntheticObjectStorage.builder()
+                .objectCount(objects)
+                .meanObjectSize(4 * 1024)
+                .build();
+        return IngestionPipeline.builder()
+                .documentLoader(new OCIDocumentLoader(objectStorage.client(), "synthetic"))
+                .splitter(ChunkingSplitter.builder().build())
+                .embeddingModel(embeddingModel)
+                .vectorStore(vectorStore)
+                .manifest(manifest)
+                .build();
+    }
+}
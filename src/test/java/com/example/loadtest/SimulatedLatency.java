@@ -0,0 +1,26 @@
+package com.example.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A fixed service latency plus uniformly distributed jitter.
+ */
+record SimulatedLatency(Duration latency, Duration jitter) {
+    static final SimulatedLatency NONE = new SimulatedLatency(Duration.ZERO, Duration.ZERO);
+
+    void sleep() {
+        long nanos = latency.toNanos();
+        if (!jitter.isZero()) {
+            nanos += ThreadLocalRandom.current().nextLong(jitter.toNanos());
+        }
+        if (nanos > 0) {
+            try {
+                Thread.sleep(Duration.ofNanos(nanos));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during simulated latency", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.loadtest;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.bmc.generativeaiinference.GenerativeAiInference;
+import com.oracle.bmc.generativeaiinference.model.EmbedTextResult;
+import com.oracle.bmc.generativeaiinference.requests.EmbedTextRequest;
+import com.oracle.bmc.generativeaiinference.responses.EmbedTextResponse;
+import com.oracle.bmc.model.BmcException;
+import lombok.Builder;
+
+/**
+ * An in-process stand-in for the OCI GenAI embedding endpoint.
+ * <p>
+ * Each input is embedded as a vector seeded by the input text, so equal texts always have equal embeddings.
+ * Requests with more than 96 inputs are rejected with a 400 error, as the service does. Throttling is simulated with
+ * 429 errors: at random, on every throttleEvery-th request, and when more than maxConcurrentRequests requests are in
+ * flight. Only embedText is supported.
+ */
+public class SyntheticGenerativeAi {
+    public static final int MAX_INPUTS = 96;
+
+    private final int dimensions;
+    private final SimulatedLatency latency;
+    private final double throttleRate;
+    private final int throttleEvery;
+    private final Integer maxConcurrentRequests;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LatencyRecorder embedLatency = new LatencyRecorder("embedText");
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong inputs = new AtomicLong();
+
+    /**
+     * @param dimensions the embedding dimension count.
+     * @param latency the base latency of each request.
+     * @param jitter the maximum random latency added to each request.
+     * @param throttleRate the fraction of requests rejected with a 429 error, from 0 to 1.
+     * @param throttleEvery when set, every nth request is rejected with a 429 error, so throttling is deterministic.
+     *                      1 rejects every request.
+     * @param maxConcurrentRequests when set, requests beyond this many in flight are rejected with a 429 error.
+     */
+    @Builder
+    public SyntheticGenerativeAi(int dimensions, Duration latency, Duration jitter, Double throttleRate, Integer throttleEvery, Integer maxConcurrentRequests) {
+        this.dimensions = dimensions;
+        this.latency = new SimulatedLatency(
+                Objects.requireNonNullElse(latency, Duration.ZERO),
+                Objects.requireNonNullElse(jitter, Duration.ZERO));
+        this.throttleRate = Objects.requireNonNullElse(throttleRate, 0.0);
+        this.throttleEvery = Objects.requireNonNullElse(throttleEvery, 0);
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * @return a GenerativeAiInference client backed by this stand-in.
+     */
+    public GenerativeAiInference client() {
+        return (GenerativeAiInference) Proxy.newProxyInstance(
+                GenerativeAiInference.class.getClassLoader(),
+                new Class<?>[]{GenerativeAiInference.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "embedText" -> embedText((EmbedTextRequest) args[0]);
+                    case "close" -> null;
+                    case "toString" -> "SyntheticGenerativeAi";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public LatencyRecorder embedLatency() {
+        return embedLatency;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    public long throttled() {
+        return throttled.get();
+    }
+
+    public long inputs() {
+        return inputs.get();
+    }
+
+    /**
+     * @return the embedding of a text.
+     */
+    public float[] embedding(String text) {
+        SplittableRandom random = new SplittableRandom(text.hashCode());
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) (random.nextDouble() * 2 - 1);
+        }
+        return vector;
+    }
+
+    private EmbedTextResponse embedText(EmbedTextRequest request) {
+        long requestNumber = requests.incrementAndGet();
+        List<String> texts = request.getEmbedTextDetails().getInputs();
+        if (texts.size() > MAX_INPUTS) {
+            throw new BmcException(400, "InvalidParameter", "Maximum number of inputs is " + MAX_INPUTS + ", got " + texts.size(), null);
+        }
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            boolean overLimit = maxConcurrentRequests != null && concurrent > maxConcurrentRequests;
+            boolean throttle = (throttleEvery > 0 && requestNumber % throttleEvery == 0)
+                    || (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate);
+            if (overLimit || throttle) {
+                throttled.incrementAndGet();
+                throw new BmcException(429, "TooManyRequests", "Too many requests for the tenancy", null);
+            }
+            long start = System.nanoTime();
+            latency.sleep();
+            List<List<Float>> embeddings = new ArrayList<>(texts.size());
+            for (String text : texts) {
+                float[] vector = embedding(text);
+                List<Float> boxed = new ArrayList<>(dimensions);
+                for (float f : vector) {
+                    boxed.add(f);
+                }
+                embeddings.add(boxed);
+            }
+            inputs.addAndGet(texts.size());
+            EmbedTextResponse response = EmbedTextResponse.builder()
+                    .embedTextResult(EmbedTextResult.builder().embeddings(embeddings).build())
+                    .build();
+            embedLatency.record(System.nanoTime() - start);
+            return response;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.loadtest;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.oracle.bmc.model.BmcException;
+import com.oracle.bmc.objectstorage.ObjectStorage;
+import com.oracle.bmc.objectstorage.model.ListObjects;
+import com.oracle.bmc.objectstorage.model.ObjectSummary;
+import com.oracle.bmc.objectstorage.requests.GetObjectRequest;
+import com.oracle.bmc.objectstorage.requests.ListObjectsRequest;
+import com.oracle.bmc.objectstorage.responses.GetObjectResponse;
+import com.oracle.bmc.objectstorage.responses.ListObjectsResponse;
+import lombok.Builder;
+
+/**
+ * An in-process stand-in for OCI Object Storage, serving a synthetic bucket of generated text documents.
+ * <p>
+ * Every bucket holds objectCount objects named {@code <prefix>/doc-<n>.txt}. Object text is generated from the object
+ * index, so the same object always has the same content, and sizes vary between half and one and a half times
+ * meanObjectSize. Objects in missingObjects are listed, but not found when fetched, as when they are deleted between
+ * the listing and the fetch. With folderMarker, listings also include a {@code <prefix>/} folder object, as created by
+ * the console. Only listObjects and getObject are supported.
+ */
+public class SyntheticObjectStorage {
+    private static final String[] WORDS = {
+            "oracle", "database", "vector", "embedding", "search", "index", "similarity", "document", "chunk", "model",
+            "the", "of", "and", "to", "in", "is", "for", "with", "on", "as", "by", "from", "at", "that", "this"
+    };
+
+    private final int objectCount;
+    private final int meanObjectSize;
+    private final int pageSize;
+    private final SimulatedLatency latency;
+    private final Set<Integer> missingObjects;
+    private final boolean folderMarker;
+    private final LatencyRecorder listLatency = new LatencyRecorder("list");
+    private final LatencyRecorder getLatency = new LatencyRecorder("get");
+    private final AtomicLong bytesServed = new AtomicLong();
+
+    /**
+     * @param objectCount the number of objects under each prefix.
+     * @param meanObjectSize the mean object size in bytes.
+     * @param pageSize the objects returned per listing page. Object Storage returns up to 1000.
+     * @param latency the base latency of each request.
+     * @param jitter the maximum random latency added to each request.
+     * @param missingObjects the indexes of objects that are listed but not found.
+     * @param folderMarker whether the first listing page starts with a folder object for the prefix.
+     */
+    @Builder
+    public SyntheticObjectStorage(int objectCount, Integer meanObjectSize, Integer pageSize, Duration latency, Duration jitter,
+                                  Set<Integer> missingObjects, Boolean folderMarker) {
+        this.objectCount = objectCount;
+        this.meanObjectSize = Objects.requireNonNullElse(meanObjectSize, 16 * 1024);
+        this.pageSize = Objects.requireNonNullElse(pageSize, 1000);
+        this.latency = new SimulatedLatency(
+                Objects.requireNonNullElse(latency, Duration.ZERO),
+                Objects.requireNonNullElse(jitter, Duration.ZERO));
+        this.missingObjects = missingObjects == null ? Set.of() : Set.copyOf(missingObjects);
+        this.folderMarker = Objects.requireNonNullElse(folderMarker, false);
+    }
+
+    /**
+     * @return an ObjectStorage client backed by this synthetic bucket.
+     */
+    public ObjectStorage client() {
+        return (ObjectStorage) Proxy.newProxyInstance(
+                ObjectStorage.class.getClassLoader(),
+                new Class<?>[]{ObjectStorage.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "listObjects" -> listObjects((ListObjectsRequest) args[0]);
+                    case "getObject" -> getObject((GetObjectRequest) args[0]);
+                    case "close" -> null;
+                    case "toString" -> "SyntheticObjectStorage";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public LatencyRecorder listLatency() {
+        return listLatency;
+    }
+
+    public LatencyRecorder getLatency() {
+        return getLatency;
+    }
+
+    public long bytesServed() {
+        return bytesServed.get();
+    }
+
+    /**
+     * Generates the text of an object, as lines of words with a blank line between paragraphs.
+     */
+    public String text(int index) {
+        SplittableRandom random = new SplittableRandom(index);
+        int size = meanObjectSize / 2 + random.nextInt(Math.max(1, meanObjectSize));
+        StringBuilder text = new StringBuilder(size + 64);
+        while (text.length() < size) {
+            int lineEnd = text.length() + 40 + random.nextInt(160);
+            while (text.length() < lineEnd) {
+                text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            text.setCharAt(text.length() - 1, '\n');
+            if (random.nextInt(5) == 0) {
+                text.append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private ListObjectsResponse listObjects(ListObjectsRequest request) {
+        long start = System.nanoTime();
+        latency.sleep();
+        String prefix = Objects.requireNonNullElse(request.getPrefix(), "");
+        int first = request.getStart() == null ? 0 : indexOf(request.getStart());
+        int last = Math.min(objectCount, first + pageSize);
+        List<ObjectSummary> objects = new ArrayList<>(last - first + 1);
+        if (folderMarker && request.getStart() == null) {
+            objects.add(ObjectSummary.builder().name(prefix + "/").build());
+        }
+        for (int i = first; i < last; i++) {
+            objects.add(ObjectSummary.builder()
+                    .name(name(prefix, i))
+                    .etag("etag-" + i)
+                    .build());
+        }
+        ListObjectsResponse response = ListObjectsResponse.builder()
+                .listObjects(ListObjects.builder()
+                        .objects(objects)
+                        .nextStartWith(last < objectCount ? name(prefix, last) : null)
+                        .build())
+                .build();
+        listLatency.record(System.nanoTime() - start);
+        return response;
+    }
+
+    private GetObjectResponse getObject(GetObjectRequest request) {
+        long start = System.nanoTime();
+        latency.sleep();
+        int index = indexOf(request.getObjectName());
+        if (index < 0 || index >= objectCount || missingObjects.contains(index)) {
+            throw new BmcException(404, "ObjectNotFound", "No object " + request.getObjectName(), null);
+        }
+        byte[] body = text(index).getBytes(StandardCharsets.UTF_8);
+        bytesServed.addAndGet(body.length);
+        GetObjectResponse response = GetObjectResponse.builder()
+                .inputStream(new ByteArrayInputStream(body))
+                .contentLength((long) body.length)
+                .eTag("etag-" + index)
+                .build();
+        getLatency.record(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Object names are zero padded, so listing order matches index order.
+     */
+    private static String name(String prefix, int index) {
+        return String.format("%s/doc-%09d.txt", prefix, index);
+    }
+
+    private static int indexOf(String name) {
+        int start = name.lastIndexOf("doc-") + 4;
+        return Integer.parseInt(name, start, name.length() - ".txt".length(), 10);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.loadtest;
+
+import java.util.List;
+
+import com.example.embeddingmodel.EmbeddingModel;
+import com.example.model.Embedding;
+
+/**
+ * Records the latency of each embedAll call, including response conversion.
+ */
+class TimedEmbeddingModel implements EmbeddingModel {
+    private final EmbeddingModel delegate;
+    private final LatencyRecorder latency = new LatencyRecorder("embed");
+
+    TimedEmbeddingModel(EmbeddingModel delegate) {
+        this.delegate = delegate;
+    }
+
+    LatencyRecorder latency() {
+        return latency;
+    }
+
+    @Override
+    public List<Embedding> embedAll(List<String> chunks) {
+        long start = System.nanoTime();
+        try {
+            return delegate.embedAll(chunks);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String id() {
+        return delegate.id();
+    }
+}
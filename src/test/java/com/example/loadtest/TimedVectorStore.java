@@ -0,0 +1,34 @@
+package com.example.loadtest;
+
+import java.util.List;
+import javax.sql.DataSource;
+
+import com.example.model.Embedding;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.VectorFormat;
+import com.example.vectorstore.WriteStats;
+
+/**
+ * Records the latency of each addAll call, from the first batch to the commit.
+ */
+class TimedVectorStore extends OracleVectorStore {
+    private final LatencyRecorder latency = new LatencyRecorder("write");
+
+    TimedVectorStore(DataSource dataSource, String tableName, int dimensions, VectorFormat vectorFormat) {
+        super(dataSource, tableName, dimensions, vectorFormat, null, null, null, null, null, null, null, null, null, null, null, null);
+    }
+
+    LatencyRecorder latency() {
+        return latency;
+    }
+
+    @Override
+    public WriteStats addAll(List<Embedding> embeddings) {
+        long start = System.nanoTime();
+        try {
+            return super.addAll(embeddings);
+        } finally {
+            latency.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicrometerFlowMetricsTest {
+    @Test
+    void recordsEachMeasurement() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FlowMetrics metrics = new MicrometerFlowMetrics(registry);
+
+        metrics.objectFetched(2048, TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.embeddingBatch(96, 4000, TimeUnit.MILLISECONDS.toNanos(150));
+        metrics.embeddingRetried(429, TimeUnit.MILLISECONDS.toNanos(250));
+        metrics.writeBatch(50, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.writeBatch(10, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.search(5, true, TimeUnit.MICROSECONDS.toNanos(10));
+
+        assertThat(registry.get("objectstorage.get.size").summary().totalAmount()).isEqualTo(2048);
+        assertThat(registry.get("genai.embed").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(150);
+        assertThat(registry.get("genai.embed.tokens").counter().count()).isEqualTo(4000);
+        assertThat(registry.get("genai.embed.retries").tag("status", "429").timer().count()).isEqualTo(1);
+        assertThat(registry.get("vectorstore.batch").timer().count()).isEqualTo(2);
+        assertThat(registry.get("vectorstore.rows.written").counter().count()).isEqualTo(60);
+        assertThat(registry.get("vectorstore.search").tag("cached", "true").timer().count()).isEqualTo(1);
+        assertThat(registry.get("vectorstore.search").tag("cached", "false").timer().count()).isZero();
+    }
+}
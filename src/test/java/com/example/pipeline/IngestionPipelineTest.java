@@ -0,0 +1,213 @@
+package com.example.pipeline;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import com.example.documentloader.DocumentLoader;
+import com.example.embeddingmodel.EmbeddingModel;
+import com.example.model.Document;
+import com.example.model.DocumentEmbeddings;
+import com.example.model.Embedding;
+import com.example.model.SourceObject;
+import com.example.splitter.StreamingSplitter;
+import com.example.vectorstore.ObjectManifest;
+import com.example.vectorstore.OracleVectorStore;
+import com.example.vectorstore.WriteStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Timeout(30)
+public class IngestionPipelineTest {
+    // With a manifest, the pipeline writes whole documents with replaceDocuments.
+    private final ObjectManifest manifest = new ObjectManifest(null, "manifest");
+    private final StubVectorStore vectorStore = new StubVectorStore();
+
+    @Test
+    void neverSplitsADocumentAcrossWrites() {
+        // Documents of 1 to 7 chunks, embedded in batches of 4 and written in batches of at least 5 rows.
+        var loader = new InMemoryDocumentLoader(50, IngestionPipelineTest::chunks);
+        IngestionPipeline pipeline = pipeline(loader, new FakeEmbeddingModel(null))
+                .embedBatchSize(4)
+                .writeBatchSize(5)
+                .embedConcurrency(4)
+                .writeConcurrency(2)
+                .build();
+
+        IngestionResult result = pipeline.run("bucket", null);
+
+        assertThat(result.documents()).isEqualTo(50);
+        assertThat(result.chunks()).isEqualTo(LongStream.range(0, 50).map(i -> i % 7 + 1).sum());
+        List<DocumentEmbeddings> written = vectorStore.writes.stream().flatMap(List::stream).toList();
+        assertThat(written).extracting(d -> d.source().name())
+                .containsExactlyInAnyOrderElementsOf(LongStream.range(0, 50).mapToObj(i -> "bucket/doc-" + i).toList());
+        for (DocumentEmbeddings document : written) {
+            long index = Long.parseLong(document.source().name().substring("bucket/doc-".length()));
+            assertThat(document.embeddings()).extracting(Embedding::content)
+                    .containsExactly(chunks(index).split("\\|"));
+        }
+    }
+
+    @Test
+    void failingEmbedStageCancelsTheRun() {
+        // An endless loader, so the run only finishes if the failure cancels the read stage.
+        var loader = new InMemoryDocumentLoader(Long.MAX_VALUE, IngestionPipelineTest::chunks);
+        IngestionPipeline pipeline = pipeline(loader, new FakeEmbeddingModel("d3c0")).build();
+
+        assertThatThrownBy(() -> pipeline.run("bucket", null))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("bucket")
+                .cause()
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Failed to embed d3c0");
+    }
+
+    @Test
+    void slowWriterBlocksTheReader() throws Exception {
+        var loader = new InMemoryDocumentLoader(1000, i -> "d" + i);
+        IngestionPipeline pipeline = pipeline(loader, new FakeEmbeddingModel(null))
+                .embedBatchSize(1)
+                .writeBatchSize(1)
+                .queueCapacity(2)
+                .embedConcurrency(2)
+                .writeConcurrency(1)
+                .build();
+        vectorStore.blocked = new CountDownLatch(1);
+
+        CompletableFuture<IngestionResult> run = CompletableFuture.supplyAsync(() -> pipeline.run("bucket", null));
+        vectorStore.writing.await();
+        Thread.sleep(500);
+
+        // One document held by the writer, two in its queue, one held by each embedder, two in the chunk queue and
+        // one held by the reader. Without backpressure the reader would load all 1000.
+        assertThat(loader.fetched.get()).isLessThanOrEqualTo(10);
+        vectorStore.blocked.countDown();
+        assertThat(run.get(20, TimeUnit.SECONDS).documents()).isEqualTo(1000);
+        assertThat(vectorStore.writes).hasSize(1000);
+    }
+
+    private IngestionPipeline.IngestionPipelineBuilder pipeline(DocumentLoader loader, EmbeddingModel model) {
+        return IngestionPipeline.builder()
+                .documentLoader(loader)
+                .splitter(new BarSplitter())
+                .embeddingModel(model)
+                .vectorStore(vectorStore)
+                .manifest(manifest);
+    }
+
+    /**
+     * The text of a document with between 1 and 7 chunks, separated by bars.
+     */
+    private static String chunks(long index) {
+        return IntStream.range(0, (int) (index % 7 + 1))
+                .mapToObj(j -> "d" + index + "c" + j)
+                .collect(Collectors.joining("|"));
+    }
+
+    /**
+     * Lazily generates documents, counting the documents read.
+     */
+    private static class InMemoryDocumentLoader implements DocumentLoader {
+        private final long count;
+        private final LongFunction<String> text;
+        private final AtomicLong fetched = new AtomicLong();
+
+        InMemoryDocumentLoader(long count, LongFunction<String> text) {
+            this.count = count;
+            this.text = text;
+        }
+
+        @Override
+        public Stream<SourceObject> listObjects(String location, String prefix) {
+            return LongStream.range(0, count).mapToObj(i -> new SourceObject("doc-" + i, "1", 1));
+        }
+
+        @Override
+        public Stream<Document> fetchDocuments(String location, Stream<SourceObject> objects) {
+            return objects.map(object -> {
+                fetched.incrementAndGet();
+                return new Document(object, text.apply(Long.parseLong(object.name().substring("doc-".length()))));
+            });
+        }
+    }
+
+    /**
+     * Splits text at each bar.
+     */
+    private static class BarSplitter implements StreamingSplitter {
+        @Override
+        public Stream<CharSequence> chunks(CharSequence text) {
+            return Arrays.stream(text.toString().split("\\|"));
+        }
+
+        @Override
+        public Stream<CharSequence> chunks(Reader reader) {
+            return chunks(new BufferedReader(reader).lines().collect(Collectors.joining()));
+        }
+    }
+
+    /**
+     * Embeds each chunk as a one dimensional vector, failing on one chunk if given.
+     */
+    private record FakeEmbeddingModel(String failOn) implements EmbeddingModel {
+        @Override
+        public List<Embedding> embedAll(List<String> chunks) {
+            List<Embedding> embeddings = new ArrayList<>(chunks.size());
+            for (String chunk : chunks) {
+                if (chunk.equals(failOn)) {
+                    throw new IllegalStateException("Failed to embed " + chunk);
+                }
+                embeddings.add(new Embedding(new float[]{1}, chunk));
+            }
+            return embeddings;
+        }
+
+        @Override
+        public String id() {
+            return "fake";
+        }
+    }
+
+    /**
+     * Records each write in memory, in place of the database. Writes wait while blocked is set.
+     */
+    private static class StubVectorStore extends OracleVectorStore {
+        private final List<List<DocumentEmbeddings>> writes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private volatile CountDownLatch blocked;
+
+        StubVectorStore() {
+            super(null, "vectors", 1);
+        }
+
+        @Override
+        public WriteStats replaceDocuments(List<DocumentEmbeddings> documents, ObjectManifest manifest) {
+            writing.countDown();
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            writes.add(documents);
+            long rows = documents.stream().mapToLong(d -> d.embeddings().size()).sum();
+            return new WriteStats(rows, 1, 0, 0, 0);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.reactive;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StreamPublisherTest {
+    @Test
+    void publishesEveryItemAndClosesTheStream() throws Exception {
+        CountDownLatch closed = new CountDownLatch(1);
+        var publisher = new StreamPublisher<>(() -> Stream.of(1, 2, 3).onClose(closed::countDown));
+
+        assertThat(Publishers.toList(publisher).get(5, TimeUnit.SECONDS)).isEqualTo(List.of(1, 2, 3));
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void readsNoFurtherThanDemandAndClosesOnCancel() throws Exception {
+        AtomicInteger read = new AtomicInteger();
+        CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch received = new CountDownLatch(2);
+        var publisher = new StreamPublisher<>(() -> Stream.iterate(0, i -> i + 1)
+                .peek(i -> read.incrementAndGet())
+                .onClose(closed::countDown));
+
+        publisher.subscribe(new Flow.Subscriber<Integer>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(2);
+            }
+
+            @Override
+            public void onNext(Integer item) {
+                received.countDown();
+                if (received.getCount() == 0) {
+                    subscription.cancel();
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        assertThat(received.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(closed.await(5, TimeUnit.SECONDS)).isTrue();
+        // The item after the demand may be read ahead, but no more.
+        assertThat(read.get()).isLessThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.splitter;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ChunkingSplitterTest {
+    // One token per character keeps the budgets easy to reason about.
+    private static final TokenEstimator ONE_CHAR_PER_TOKEN = TokenEstimator.charsPerToken(1);
+
+    @Test
+    void lineSplitterSkipsEmptyLines() {
+        LineSplitter splitter = new LineSplitter();
+        String text = "first\r\nsecond\n\nthird\rfourth\n";
+
+        assertThat(splitter.split(text)).containsExactly("first", "second", "third", "fourth");
+        assertThat(splitter.chunks(new StringReader(text)).map(CharSequence::toString))
+                .containsExactly("first", "second", "third", "fourth");
+    }
+
+    @Test
+    void packsShortLines() {
+        ChunkingSplitter splitter = ChunkingSplitter.builder()
+                .maxTokens(10)
+                .tokenEstimator(ONE_CHAR_PER_TOKEN)
+                .build();
+
+        List<String> chunks = splitter.split("aaa\nbbb\nccc\nddd");
+
+        assertThat(chunks).containsExactly("aaa\nbbb", "ccc\nddd");
+    }
+
+    @Test
+    void breaksLongLinesAtWhitespace() {
+        ChunkingSplitter splitter = ChunkingSplitter.builder()
+                .maxTokens(10)
+                .tokenEstimator(ONE_CHAR_PER_TOKEN)
+                .build();
+
+        List<String> chunks = splitter.split("alpha beta gamma delta");
+
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(10));
+        assertThat(String.join("", chunks)).isEqualTo("alpha beta gamma delta");
+        assertThat(chunks.getFirst()).isEqualTo("alpha ");
+    }
+
+    @Test
+    void overlapsChunks() {
+        ChunkingSplitter splitter = ChunkingSplitter.builder()
+                .maxTokens(12)
+                .overlapTokens(5)
+                .tokenEstimator(ONE_CHAR_PER_TOKEN)
+                .build();
+
+        List<String> chunks = splitter.split("one\ntwo\nthree\nfour");
+
+        assertThat(chunks).containsExactly("one\ntwo", "two\nthree", "three\nfour");
+    }
+
+    @Test
+    void breaksLinesOfSeveralMegabytesFromAReader() {
+        ChunkingSplitter splitter = ChunkingSplitter.builder().build();
+        String line = "word ".repeat(1_000_000);
+        AtomicLong read = new AtomicLong();
+        Reader reader = new FilterReader(new StringReader(line + "\nlast")) {
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                read.addAndGet(Math.max(n, 0));
+                return n;
+            }
+        };
+
+        try (Stream<CharSequence> chunks = splitter.chunks(reader)) {
+            Iterator<CharSequence> it = chunks.iterator();
+            it.next();
+            // The first chunk is emitted after reading a block, not the whole line.
+            assertThat(read.get()).isLessThan(64 * 1024);
+            StringBuilder rest = new StringBuilder();
+            it.forEachRemaining(chunk -> {
+                assertThat(TokenEstimator.DEFAULT.estimate(chunk)).isLessThanOrEqualTo(ChunkingSplitter.DEFAULT_MAX_TOKENS);
+                rest.append(chunk).append('|');
+            });
+            assertThat(rest.toString()).endsWith("last|");
+        }
+
+        List<String> chunks = splitter.split(line);
+        assertThat(String.join("", chunks)).isEqualTo(line);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(4 * ChunkingSplitter.DEFAULT_MAX_TOKENS));
+    }
+
+    @Test
+    void readerAndTextChunksMatch() {
+        ChunkingSplitter splitter = ChunkingSplitter.builder()
+                .maxTokens(50)
+                .overlapTokens(10)
+                .build();
+        String text = ("short line\r\n\n" + "a much longer line ".repeat(2_000) + "\r").repeat(5);
+
+        assertThat(splitter.chunks(new StringReader(text)).map(CharSequence::toString).toList())
+                .isEqualTo(splitter.split(text));
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.vectormath;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class VectorMathTest {
+    private final Random random = new Random(11);
+
+    @Test
+    void simdKernelsMatchScalarKernels() {
+        Kernels simd = new SimdKernels();
+        Kernels scalar = new ScalarKernels();
+        // Include lengths that are not a multiple of any lane count, to cover the scalar tails.
+        for (int length : new int[]{1, 7, 384, 1023, 4096}) {
+            float[] a = randomVector(length + 3);
+            float[] b = randomVector(length + 5);
+            assertThat(simd.dot(a, 3, b, 5, length)).isCloseTo(scalar.dot(a, 3, b, 5, length), within(1e-3f));
+
+            float[] simdScaled = new float[length];
+            float[] scalarScaled = new float[length];
+            simd.scale(a, 3, simdScaled, 0, length, 0.5f);
+            scalar.scale(a, 3, scalarScaled, 0, length, 0.5f);
+            assertThat(simdScaled).containsExactly(scalarScaled);
+
+            double[] doubles = new double[length];
+            float[] narrowed = new float[length];
+            simd.widen(b, doubles, length);
+            simd.narrow(doubles, narrowed, length);
+            assertThat(narrowed).containsExactly(Arrays.copyOf(b, length));
+        }
+    }
+
+    @Test
+    void normalizeLeavesSourceUnchanged() {
+        float[] v = {3, 4};
+        float[] buffer = new float[2];
+
+        assertThat(VectorMath.normalize(v, buffer)).isSameAs(buffer).containsExactly(0.6f, 0.8f);
+        assertThat(VectorMath.normalized(v)).containsExactly(0.6f, 0.8f);
+        assertThat(v).containsExactly(3, 4);
+        assertThat(VectorMath.normalizeInPlace(new float[]{0, 0})).containsExactly(0, 0);
+    }
+
+    private float[] randomVector(int length) {
+        float[] v = new float[length];
+        for (int i = 0; i < length; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+}
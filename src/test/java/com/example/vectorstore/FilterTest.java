@@ -0,0 +1,32 @@
+package com.example.vectorstore;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class FilterTest {
+    @Test
+    void bindsEveryValueAsAParameter() {
+        assertThat(Filter.eq("Tenant", "acme' or 1=1 --").toSql()).isEqualTo("tenant = ?");
+        assertThat(Filter.gte("created_at", 0).toSql()).isEqualTo("created_at >= ?");
+        assertThat(Filter.in("doc_type", List.of("pdf", "html")).toSql()).isEqualTo("doc_type in (?, ?)");
+        assertThatThrownBy(() -> Filter.in("doc_type", List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUnsafeOrReservedColumnNames() {
+        assertThat(MetadataColumn.varchar("Tenant").name()).isEqualTo("tenant");
+        assertThatThrownBy(() -> MetadataColumn.varchar("tenant; drop table x")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> MetadataColumn.number("embedding")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> OracleVectorStore.builder()
+                .tableName("vectors")
+                .dimensions(8)
+                .metadataColumns(List.of(MetadataColumn.varchar("tenant")))
+                .partitionColumn("source")
+                .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
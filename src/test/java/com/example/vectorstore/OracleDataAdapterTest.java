@@ -0,0 +1,50 @@
+package com.example.vectorstore;
+
+import java.util.SplittableRandom;
+
+import com.example.vectormath.VectorMath;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+public class OracleDataAdapterTest {
+    @Test
+    void int8PreservesTheDirectionOfUnitVectors() {
+        SplittableRandom random = new SplittableRandom(42);
+        float[] vector = new float[1024];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        VectorMath.normalizeInPlace(vector);
+        OracleDataAdapter adapter = new OracleDataAdapter(VectorFormat.INT8);
+
+        byte[] quantized = adapter.toInt8(vector);
+        float[] decoded = adapter.fromInt8(quantized);
+
+        // The largest dimension uses the full 8-bit range, rather than a few values around 0.
+        int max = 0;
+        for (byte b : quantized) {
+            max = Math.max(max, Math.abs(b));
+        }
+        assertThat(max).isEqualTo(127);
+        assertThat(1 - VectorMath.dot(vector, decoded)).isLessThan(1e-3f);
+    }
+
+    @Test
+    void binaryKeepsTheSignOfEachDimension() {
+        float[] vector = {0.5f, -0.1f, 0, 0.2f, -0.7f, 0.3f, 0.1f, -0.2f, 0.4f, 0.1f, -0.3f, -0.1f, 0.6f, 0, 0.2f, -0.4f};
+        OracleDataAdapter adapter = new OracleDataAdapter(VectorFormat.BINARY);
+
+        byte[] packed = adapter.toBinary(vector);
+        float[] decoded = adapter.fromBinary(packed);
+
+        // Positive dimensions are set, most significant bit first.
+        assertThat(packed).containsExactly(0b10010110, 0b11001010);
+        assertThat(decoded).hasSize(vector.length);
+        for (int i = 0; i < vector.length; i++) {
+            assertThat(decoded[i]).isEqualTo(vector[i] > 0 ? 0.25f : -0.25f);
+        }
+        assertThat(VectorMath.magnitude(decoded)).isCloseTo(1f, within(1e-6f));
+    }
+}
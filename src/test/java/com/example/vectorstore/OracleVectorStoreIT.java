@@ -0,0 +1,365 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.example.model.Embedding;
+import com.example.model.SourceObject;
+import com.example.vectormath.VectorMath;
+import oracle.ucp.jdbc.PoolDataSource;
+import oracle.ucp.jdbc.PoolDataSourceFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.oracle.OracleContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Tests the vector store against a local Oracle Database container.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class OracleVectorStoreIT {
+    private static final int DIMENSIONS = 8;
+
+    // Pre-pull this image to avoid testcontainers image pull timeouts:
+    // docker pull gvenzl/oracle-free:23.5-slim-faststart
+    @Container
+    private static final OracleContainer oracleContainer = new OracleContainer("gvenzl/oracle-free:23.5-slim-faststart")
+            .withUsername("testuser")
+            .withPassword(("testpwd"));
+
+    private PoolDataSource dataSource(String poolName) throws Exception {
+        PoolDataSource dataSource = PoolDataSourceFactory.getPoolDataSource();
+        dataSource.setConnectionFactoryClassName("oracle.jdbc.pool.OracleDataSource");
+        dataSource.setConnectionPoolName(poolName);
+        dataSource.setUser(oracleContainer.getUsername());
+        dataSource.setPassword(oracleContainer.getPassword());
+        dataSource.setURL(oracleContainer.getJdbcUrl());
+        dataSource.setMaxPoolSize(4);
+        return dataSource;
+    }
+
+    @Test
+    void concurrentAsyncSearchesAndWrite() throws Exception {
+        PoolDataSource dataSource = dataSource("ASYNC_TEST");
+        try (OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("async_test_vectors")
+                .dimensions(DIMENSIONS)
+                .asyncConnections(2)
+                .build()) {
+            vectorStore.createTableIfNotExists();
+            WriteStats stats = vectorStore.addAllAsync(embeddings(120)).get(1, TimeUnit.MINUTES);
+            assertThat(stats.rows()).isEqualTo(120);
+
+            List<CompletableFuture<List<SearchResult>>> searches = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                searches.add(vectorStore.searchAsync(SearchRequest.builder()
+                        .vector(vector(i))
+                        .maxResults(5)
+                        .build()));
+            }
+            for (int i = 0; i < searches.size(); i++) {
+                List<SearchResult> results = searches.get(i).get(1, TimeUnit.MINUTES);
+                assertThat(results).hasSize(5);
+                assertThat(results.getFirst().embedding().content()).isEqualTo("chunk " + i);
+                assertThat(results.getFirst().embedding().vector()).hasSize(DIMENSIONS);
+            }
+            // Searches share the async connections rather than borrowing one each.
+            assertThat(dataSource.getBorrowedConnectionsCount()).isLessThanOrEqualTo(2);
+
+            // A failed search leaves its shared connection usable by the next one.
+            for (int i = 0; i < 2; i++) {
+                assertThatThrownBy(() -> vectorStore.searchAsync(SearchRequest.builder()
+                        .vector(new float[DIMENSIONS + 1])
+                        .build()).get(1, TimeUnit.MINUTES))
+                        .isInstanceOf(ExecutionException.class);
+            }
+            assertThat(vectorStore.searchAsync(SearchRequest.builder().vector(vector(7)).build()).get(1, TimeUnit.MINUTES))
+                    .extracting(r -> r.embedding().content())
+                    .containsExactly("chunk 7");
+            assertThat(dataSource.getBorrowedConnectionsCount()).isLessThanOrEqualTo(2);
+        }
+        assertThat(dataSource.getBorrowedConnectionsCount()).isZero();
+    }
+
+    @Test
+    void failedAsyncWriteReleasesConnection() throws Exception {
+        PoolDataSource dataSource = dataSource("ASYNC_FAILURE_TEST");
+        try (OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("async_failure_vectors")
+                .dimensions(DIMENSIONS)
+                .bulkLoad(true)
+                .build()) {
+            vectorStore.createTableIfNotExists();
+            // Bulk load inserts every row, so the repeated id violates the primary key.
+            List<Embedding> embeddings = new ArrayList<>(embeddings(10));
+            embeddings.add(new Embedding("duplicate", vector(0), "first"));
+            embeddings.add(new Embedding("duplicate", vector(1), "second"));
+
+            assertThatThrownBy(() -> vectorStore.addAllAsync(embeddings).get(1, TimeUnit.MINUTES))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasStackTraceContaining("ORA-00001");
+            assertThat(dataSource.getBorrowedConnectionsCount()).isZero();
+            assertThat(count(dataSource, "async_failure_vectors")).isZero();
+
+            vectorStore.addAllAsync(embeddings(10)).get(1, TimeUnit.MINUTES);
+            assertThat(dataSource.getBorrowedConnectionsCount()).isZero();
+            assertThat(count(dataSource, "async_failure_vectors")).isEqualTo(10);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = VectorFormat.class, names = {"FLOAT32", "INT8", "BINARY"})
+    void roundTripsVectorFormat(VectorFormat vectorFormat) throws Exception {
+        int dimensions = 16;
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource("FORMAT_TEST_" + vectorFormat))
+                .tableName("format_test_" + vectorFormat.name().toLowerCase())
+                .dimensions(dimensions)
+                .vectorFormat(vectorFormat)
+                .build();
+        vectorStore.createTableIfNotExists();
+        SplittableRandom random = new SplittableRandom(42);
+        List<Embedding> embeddings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            float[] vector = new float[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            embeddings.add(new Embedding(vector, "chunk " + i));
+        }
+        vectorStore.addAll(embeddings);
+
+        for (Embedding embedding : embeddings) {
+            SearchResult match = vectorStore.search(SearchRequest.builder().vector(embedding.vector()).build()).getFirst();
+            float[] expected = VectorMath.normalized(embedding.vector());
+            float[] stored = match.embedding().vector();
+            // The query is encoded like the stored vectors, so a vector matches itself exactly.
+            assertThat(match.score()).isCloseTo(1.0, within(1e-5));
+            assertThat(stored).hasSize(dimensions);
+            switch (vectorFormat) {
+                case FLOAT32 -> {
+                    assertThat(match.embedding().content()).isEqualTo(embedding.content());
+                    assertThat(stored).containsExactly(expected, within(1e-6f));
+                }
+                case INT8 -> {
+                    assertThat(match.embedding().content()).isEqualTo(embedding.content());
+                    assertThat(VectorMath.dot(expected, stored)).isGreaterThan(0.999f);
+                }
+                // Vectors with the same signs are equal once binarized, so only the signs are compared.
+                case BINARY -> {
+                    for (int d = 0; d < dimensions; d++) {
+                        assertThat(stored[d]).isEqualTo(expected[d] > 0 ? 0.25f : -0.25f);
+                    }
+                }
+                default -> throw new IllegalArgumentException(vectorFormat.name());
+            }
+        }
+    }
+
+    @Test
+    void buildsAndRebuildsIvfIndex() throws Exception {
+        PoolDataSource dataSource = dataSource("IVF_TEST");
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("ivf_test_vectors")
+                .dimensions(DIMENSIONS)
+                .build();
+        // The index is built on a populated table, so its partition count is derived from the row count.
+        vectorStore.createTableIfNotExists();
+        VectorIndexManager indexManager = vectorStore.getIndexManager();
+        indexManager.dropIndex();
+        vectorStore.addAll(embeddings(400));
+        indexManager.createIndexIfNotExists();
+
+        VectorIndexStats stats = indexManager.stats();
+        assertThat(stats.subtype()).contains("IVF");
+        assertThat(stats.rows()).isEqualTo(400);
+        assertThat(stats.sizeBytes()).isPositive();
+        assertThat(centroids(dataSource, indexManager.getIndexName())).isEqualTo(20);
+
+        // The rebuild passes the partition count for the grown table in its JSON parameters.
+        vectorStore.addAll(embeddings(400, 500));
+        assertThat(indexManager.rebuildIndexIfGrown(2.0)).isTrue();
+        stats = indexManager.stats();
+        assertThat(stats.subtype()).contains("IVF");
+        assertThat(stats.rows()).isEqualTo(900);
+        assertThat(stats.sizeBytes()).isPositive();
+        assertThat(centroids(dataSource, indexManager.getIndexName())).isEqualTo(30);
+
+        assertThat(indexManager.measureRecall(10, 5, 90)).isBetween(0.5, 1.0);
+    }
+
+    @Test
+    void buildsAndRebuildsHnswIndex() throws Exception {
+        enableVectorPool();
+        PoolDataSource dataSource = dataSource("HNSW_TEST");
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource)
+                .tableName("hnsw_test_vectors")
+                .dimensions(DIMENSIONS)
+                .indexOptions(VectorIndexOptions.builder()
+                        .type(VectorIndexType.HNSW)
+                        .neighbors(16)
+                        .efConstruction(100)
+                        .build())
+                .build();
+        vectorStore.createTableIfNotExists();
+        VectorIndexManager indexManager = vectorStore.getIndexManager();
+        indexManager.dropIndex();
+        vectorStore.addAll(embeddings(300));
+        indexManager.createIndexIfNotExists();
+
+        VectorIndexStats stats = indexManager.stats();
+        assertThat(stats.subtype()).contains("HNSW");
+        assertThat(stats.rows()).isEqualTo(300);
+
+        indexManager.rebuildIndex(VectorIndexOptions.builder()
+                .type(VectorIndexType.HNSW)
+                .neighbors(32)
+                .efConstruction(200)
+                .build());
+        stats = indexManager.stats();
+        assertThat(stats.name()).isEqualTo("hnsw_test_vectors_vector_index");
+        assertThat(stats.subtype()).contains("HNSW");
+        assertThat(indexManager.getOptions().getNeighbors()).isEqualTo(32);
+
+        assertThat(indexManager.measureRecall(10, 5, 90)).isBetween(0.5, 1.0);
+    }
+
+    @Test
+    void workQueueReclaimsExpiredLeasesOnly() throws Exception {
+        PoolDataSource dataSource = dataSource("LEASE_TEST");
+        WorkQueue expiring = WorkQueue.builder()
+                .dataSource(dataSource)
+                .tableName("lease_test_queue")
+                .workerId("expiring")
+                .leaseDuration(Duration.ofSeconds(1))
+                .build();
+        WorkQueue live = WorkQueue.builder()
+                .dataSource(dataSource)
+                .tableName("lease_test_queue")
+                .workerId("live")
+                .build();
+        // Ahead of the database by many hours, so a lease compared in the session time zone would look expired.
+        WorkQueue reclaiming = WorkQueue.builder()
+                .dataSource(inTimeZone(dataSource("LEASE_TEST_EAST"), "+14:00"))
+                .tableName("lease_test_queue")
+                .workerId("reclaiming")
+                .build();
+        expiring.createTableIfNotExists();
+        expiring.enqueue("leases", Stream.of(new SourceObject("a", "1", 1), new SourceObject("b", "1", 1)));
+
+        assertThat(expiring.claim("leases", 1)).hasSize(1);
+        assertThat(live.claim("leases", 1)).hasSize(1);
+        assertThat(reclaiming.claim("leases", 2)).isEmpty();
+
+        Thread.sleep(2000);
+        List<SourceObject> reclaimed = reclaiming.claim("leases", 2);
+        assertThat(reclaimed).hasSize(1);
+        assertThat(live.renew("leases", List.of("a", "b"))).isEqualTo(1);
+        assertThat(expiring.complete("leases", reclaimed.stream().map(SourceObject::name).toList())).isZero();
+        assertThat(reclaiming.complete("leases", reclaimed.stream().map(SourceObject::name).toList())).isEqualTo(1);
+    }
+
+    /**
+     * Sets the session time zone of every connection, as a worker running in that time zone would.
+     */
+    private static DataSource inTimeZone(DataSource dataSource, String timeZone) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    try {
+                        Object result = method.invoke(dataSource, args);
+                        if (result instanceof Connection connection) {
+                            try (Statement stmt = connection.createStatement()) {
+                                stmt.execute("alter session set time_zone = '" + timeZone + "'");
+                            }
+                        }
+                        return result;
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    /**
+     * Counts the centroids of an IVF index, one for each neighbor partition.
+     */
+    private static long centroids(PoolDataSource dataSource, String indexName) throws Exception {
+        String centroidTable;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "select table_name from user_tables where table_name like 'VECTOR$' || ? || '$%IVF_FLAT_CENTROIDS'")) {
+            stmt.setString(1, indexName.toUpperCase());
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertThat(rs.next()).isTrue();
+                centroidTable = rs.getString(1);
+            }
+        }
+        return count(dataSource, '"' + centroidTable + '"');
+    }
+
+    /**
+     * HNSW graphs are held in the vector pool, which the container image does not allocate.
+     */
+    private static void enableVectorPool() throws Exception {
+        try (Connection conn = DriverManager.getConnection(oracleContainer.getJdbcUrl(), "system", oracleContainer.getPassword());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("alter session set container = cdb$root");
+            stmt.execute("alter system set vector_memory_size = 256M scope = memory");
+        }
+    }
+
+    private static List<Embedding> embeddings(int count) {
+        return embeddings(0, count);
+    }
+
+    private static List<Embedding> embeddings(int first, int count) {
+        List<Embedding> embeddings = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            embeddings.add(new Embedding(vector(i), "chunk " + i));
+        }
+        return embeddings;
+    }
+
+    /**
+     * A distinct direction for each index, so every vector is its own nearest neighbor.
+     */
+    private static float[] vector(int index) {
+        float[] vector = new float[DIMENSIONS];
+        double angle = index * 0.01;
+        vector[index % DIMENSIONS] = (float) Math.cos(angle);
+        vector[(index + 1) % DIMENSIONS] = (float) Math.sin(angle);
+        vector[(index + 3) % DIMENSIONS] = index / 100f;
+        return vector;
+    }
+
+    private static long count(PoolDataSource dataSource, String table) throws Exception {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
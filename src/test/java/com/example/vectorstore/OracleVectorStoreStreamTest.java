@@ -0,0 +1,128 @@
+package com.example.vectorstore;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.example.model.Embedding;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Checks that export streams read through one cursor and release it, using a stand-in JDBC driver.
+ */
+public class OracleVectorStoreStreamTest {
+    private final AtomicInteger fetchSize = new AtomicInteger();
+    private final AtomicBoolean connectionClosed = new AtomicBoolean();
+    private final AtomicInteger rowsRead = new AtomicInteger();
+    private final AtomicBoolean failClose = new AtomicBoolean();
+
+    @Test
+    void closesCursorWhenStreamCloses() {
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource(1_000))
+                .tableName("vectors")
+                .dimensions(4)
+                .fetchSize(200)
+                .build();
+
+        try (Stream<Embedding> embeddings = vectorStore.streamEmbeddings()) {
+            Iterator<Embedding> it = embeddings.iterator();
+            assertThat(it.next().vector()).containsExactly(1, 0, 0, 0);
+            it.next();
+        }
+
+        assertThat(fetchSize.get()).isEqualTo(200);
+        assertThat(rowsRead.get()).isEqualTo(2);
+        assertThat(connectionClosed).isTrue();
+    }
+
+    @Test
+    void releasesConnectionAfterLastRow() {
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource(3))
+                .tableName("vectors")
+                .dimensions(4)
+                .build();
+
+        List<Embedding> embeddings = vectorStore.streamEmbeddings().toList();
+
+        assertThat(embeddings).hasSize(3);
+        assertThat(connectionClosed).isTrue();
+    }
+
+    @Test
+    void releasesConnectionWhenCursorFailsToClose() {
+        failClose.set(true);
+        OracleVectorStore vectorStore = OracleVectorStore.builder()
+                .dataSource(dataSource(3))
+                .tableName("vectors")
+                .dimensions(4)
+                .build();
+
+        Stream<Embedding> embeddings = vectorStore.streamEmbeddings();
+        embeddings.iterator().next();
+        Throwable error = catchThrowable(embeddings::close);
+
+        assertThat(error).hasRootCauseMessage("result set close failed");
+        assertThat(error.getCause().getSuppressed()).extracting(Throwable::getMessage)
+                .containsExactly("statement close failed");
+        assertThat(connectionClosed).isTrue();
+    }
+
+    private DataSource dataSource(int rows) {
+        InvocationHandler resultSet = (proxy, method, args) -> switch (method.getName()) {
+            case "next" -> rowsRead.incrementAndGet() <= rows;
+            case "getString" -> "id-" + rowsRead.get();
+            case "getObject" -> args[1] == float[].class ? new float[]{1, 0, 0, 0} : "content";
+            case "close" -> {
+                if (failClose.get()) {
+                    throw new SQLException("result set close failed");
+                }
+                yield null;
+            }
+            default -> null;
+        };
+        InvocationHandler statement = (proxy, method, args) -> switch (method.getName()) {
+            case "setFetchSize" -> {
+                fetchSize.set((Integer) args[0]);
+                yield null;
+            }
+            case "executeQuery" -> proxy(ResultSet.class, resultSet);
+            case "close" -> {
+                if (failClose.get()) {
+                    throw new SQLException("statement close failed");
+                }
+                yield null;
+            }
+            case "isWrapperFor" -> false;
+            default -> null;
+        };
+        InvocationHandler connection = (proxy, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> proxy(PreparedStatement.class, statement);
+            case "close" -> {
+                connectionClosed.set(true);
+                yield null;
+            }
+            case "isWrapperFor" -> false;
+            default -> null;
+        };
+        return proxy(DataSource.class, (proxy, method, args) -> proxy(Connection.class, connection));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.vectorstore;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.example.model.Embedding;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchCacheTest {
+    private static final List<SearchResult> RESULTS = List.of(new SearchResult(new Embedding(new float[]{1, 0}, "text"), 0.9));
+
+    private static SearchRequest request(float... vector) {
+        return SearchRequest.builder().vector(vector).maxResults(5).build();
+    }
+
+    @Test
+    void cachesUntilInvalidated() {
+        SearchCache cache = SearchCache.builder().build();
+        SearchCache.Key key = cache.key(request(1, 0));
+
+        assertThat(cache.get(key)).isNull();
+        cache.put(key, RESULTS, cache.generation());
+        assertThat(cache.get(key)).isEqualTo(RESULTS);
+        cache.invalidateAll();
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.hits()).isEqualTo(1);
+        assertThat(cache.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsResultsOfASearchThatOverlappedAWrite() {
+        SearchCache cache = SearchCache.builder().build();
+        SearchCache.Key key = cache.key(request(1, 0));
+        long generation = cache.generation();
+
+        // A write lands while the search is running.
+        cache.invalidateAll();
+
+        assertThat(cache.put(key, RESULTS, generation)).isEqualTo(RESULTS);
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void expiresAfterTheTtl() throws Exception {
+        SearchCache cache = SearchCache.builder().ttl(Duration.ofMillis(1)).build();
+        SearchCache.Key key = cache.key(request(1, 0));
+        cache.put(key, RESULTS, cache.generation());
+
+        Thread.sleep(5);
+
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsedSearch() {
+        SearchCache cache = SearchCache.builder().maxEntries(2).build();
+        SearchCache.Key first = cache.key(request(1, 0));
+        SearchCache.Key second = cache.key(request(0, 1));
+        SearchCache.Key third = cache.key(request(1, 1));
+        cache.put(first, RESULTS, cache.generation());
+        cache.put(second, RESULTS, cache.generation());
+
+        cache.get(first);
+        cache.put(third, RESULTS, cache.generation());
+
+        assertThat(cache.get(first)).isNotNull();
+        assertThat(cache.get(second)).isNull();
+        assertThat(cache.get(third)).isNotNull();
+    }
+
+    @Test
+    void keysOnTheNormalizedAndQuantizedQuery() {
+        SearchCache exact = SearchCache.builder().build();
+        SearchCache quantized = SearchCache.builder().quantizationBits(8).build();
+
+        // Queries are normalized, so scaled queries always match.
+        assertThat(exact.key(request(2, 0))).isEqualTo(exact.key(request(1, 0)));
+        assertThat(exact.key(request(1, 0.0001f))).isNotEqualTo(exact.key(request(1, 0)));
+        assertThat(quantized.key(request(1, 0.0001f))).isEqualTo(quantized.key(request(1, 0)));
+        assertThat(quantized.key(request(1, 0.1f))).isNotEqualTo(quantized.key(request(1, 0)));
+
+        // The other search parameters are part of the key.
+        SearchRequest filtered = SearchRequest.builder().vector(new float[]{1, 0}).maxResults(5)
+                .filters(List.of(Filter.eq("tenant", "acme"))).build();
+        SearchRequest more = SearchRequest.builder().vector(new float[]{1, 0}).maxResults(10).build();
+        assertThat(exact.key(filtered)).isNotEqualTo(exact.key(request(1, 0)));
+        assertThat(exact.key(more)).isNotEqualTo(exact.key(request(1, 0)));
+    }
+}